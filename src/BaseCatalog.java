@@ -0,0 +1,193 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Every item base in one index: class restriction ({@link itemmap}), hands ({@link TwoHandedWeaponUtil}),
+ * weapon group and subtype ({@link WeaponGroupTypeUtil}), tier and the Armor.txt / Weapons.txt stats
+ * ({@link BaseStatsUpdater}).
+ * <p>
+ * Keys are {@link #canonicalId(String) canonical ids}, so "Bec-de-Corbin", "bec de corbin" and "Skull_Cap" /
+ * "Skull Cap" find the same base with one hash probe. Built on first use; {@link #reset()} rereads the tables.
+ */
+public final class BaseCatalog {
+
+    private static final String dir = System.getProperty("user.dir") + "\\data\\";
+    static final Path ARMOR_TXT = Paths.get(dir, "Armor.txt");
+    static final Path WEAPONS_TXT = Paths.get(dir, "Weapons.txt");
+    // Tables for Base.stats, in the order BaseStatsUpdater applies them
+    static final int ARMOR = 0;
+    static final int WEAPONS = 1;
+
+    // Stat columns kept from both tables
+    private static final List<String> STAT_COLUMNS = Arrays.asList("minac", "maxac", "block", "mindam", "maxdam",
+            "reqstr", "gemsockets");
+    private static final List<String> TIER_COLUMNS = Arrays.asList("normcode", "ubercode", "ultracode");
+    private static final String[] TIERS = {"normal", "exceptional", "elite"};
+
+    private static volatile BaseCatalog instance;
+
+    private final Map<String, Base> byId;
+
+    /**
+     * One base. Fields that do not apply are null (false for twoHanded).
+     */
+    public static final class Base {
+        final String id;
+        // First name seen: Armor.txt / Weapons.txt, else the code tables
+        String name;
+        String classOnly;
+        boolean twoHanded;
+        String group;
+        String subtype;
+        String tier;
+        // Positive stat columns of the Armor.txt / Weapons.txt row; null without a row in that table
+        Map<String, Integer> armorStats;
+        Map<String, Integer> weaponStats;
+
+        private Base(String id, String name) {
+            this.id = id;
+            this.name = name;
+        }
+
+        // Stats from ARMOR or WEAPONS
+        Map<String, Integer> stats(int table) {
+            return table == ARMOR ? armorStats : weaponStats;
+        }
+    }
+
+    private BaseCatalog(Map<String, Base> byId) {
+        this.byId = byId;
+    }
+
+    public static BaseCatalog get() {
+        BaseCatalog c = instance;
+        if (c == null) {
+            synchronized (BaseCatalog.class) {
+                c = instance;
+                if (c == null) {
+                    try {
+                        c = build();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException("Failed to read base tables", e);
+                    }
+                    instance = c;
+                }
+            }
+        }
+        return c;
+    }
+
+    // Drops the catalog so the next get() rereads Armor.txt and Weapons.txt (watch mode)
+    public static synchronized void reset() {
+        instance = null;
+    }
+
+    // The base, or null if unknown
+    public Base find(String name) {
+        return name == null ? null : byId.get(canonicalId(name));
+    }
+
+    /**
+     * Lookup key for a base name: lower case, every run of characters other than a-z / 0-9 as one space,
+     * no leading or trailing space. "Hunter's Bow" gives "hunter s bow", "Skull_Cap" gives "skull cap".
+     */
+    static String canonicalId(String name) {
+        StringBuilder sb = new StringBuilder(name.length());
+        boolean gap = false;
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (c >= 'A' && c <= 'Z') c = (char) (c + ('a' - 'A'));
+            if ((c >= 'a' && c <= 'z') || (c >= '0' && c <= '9')) {
+                if (gap && sb.length() > 0) sb.append(' ');
+                sb.append(c);
+                gap = false;
+            } else {
+                gap = true;
+            }
+        }
+        return sb.toString();
+    }
+
+    private static BaseCatalog build() throws IOException {
+        Map<String, Base> byId = new HashMap<>(1024);
+        // Earlier classes win, as the per-class checks ran in this order
+        for (Map.Entry<String, Set<String>> e : itemmap.classBases().entrySet()) {
+            for (String name : e.getValue()) {
+                Base b = base(byId, name);
+                if (b.classOnly == null) b.classOnly = e.getKey();
+            }
+        }
+        for (String name : TwoHandedWeaponUtil.TWO_HANDED_BASES_RAW) {
+            base(byId, name).twoHanded = true;
+        }
+        for (Map.Entry<String, String> e : WeaponGroupTypeUtil.NAME_TO_GROUP.entrySet()) {
+            base(byId, e.getKey()).group = e.getValue();
+        }
+        for (Map.Entry<String, String> e : WeaponGroupTypeUtil.ITEM_BASE_TO_SUBTYPE.entrySet()) {
+            base(byId, e.getKey()).subtype = e.getValue();
+        }
+        readTable(byId, ARMOR_TXT, ARMOR);
+        readTable(byId, WEAPONS_TXT, WEAPONS);
+        return new BaseCatalog(byId);
+    }
+
+    private static Base base(Map<String, Base> byId, String name) {
+        return byId.computeIfAbsent(canonicalId(name), id -> new Base(id, name.trim()));
+    }
+
+    private static void readTable(Map<String, Base> byId, Path path, int slot) throws IOException {
+        List<String> columns = new ArrayList<>(STAT_COLUMNS);
+        columns.add("name");
+        columns.add("code");
+        columns.addAll(TIER_COLUMNS);
+        TsvTable table = TsvTable.read(path, columns);
+        TsvTable.StringColumn name = table.column("name");
+        TsvTable.StringColumn code = table.column("code");
+        TsvTable.StringColumn[] tierCodes = new TsvTable.StringColumn[TIERS.length];
+        for (int t = 0; t < TIERS.length; t++) {
+            tierCodes[t] = table.column(TIER_COLUMNS.get(t));
+        }
+        TsvTable.IntColumn[] stats = new TsvTable.IntColumn[STAT_COLUMNS.size()];
+        for (int s = 0; s < stats.length; s++) {
+            stats[s] = table.intColumn(STAT_COLUMNS.get(s));
+        }
+
+        for (int r = 0; r < table.rowCount(); r++) {
+            String rawName = name.get(r).trim();
+            if (rawName.isEmpty()) continue;
+
+            // mindam/maxdam appear twice in Armor.txt; the last column wins
+            Map<String, Integer> vals = new HashMap<>();
+            for (int s = 0; s < stats.length; s++) {
+                int v = stats[s].getOrDefault(r, 0);
+                if (v > 0) vals.put(STAT_COLUMNS.get(s), v);
+            }
+
+            Base b = base(byId, rawName);
+            if (b.armorStats == null && b.weaponStats == null) b.name = rawName;
+            // Override: force Boneweave to have 6 max sockets
+            if (slot == ARMOR && b.id.equals("boneweave")) {
+                vals.put("gemsockets", 6);
+            }
+            // A repeated name keeps its last row
+            if (slot == ARMOR) b.armorStats = vals;
+            else b.weaponStats = vals;
+
+            String c = code.get(r).trim();
+            for (int t = 0; t < TIERS.length; t++) {
+                if (!c.isEmpty() && c.equals(tierCodes[t].get(r).trim())) {
+                    b.tier = TIERS[t];
+                    break;
+                }
+            }
+        }
+    }
+}
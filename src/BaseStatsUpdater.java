@@ -1,18 +1,33 @@
 import java.io.BufferedReader;
-import java.io.FileReader;
 import java.io.IOException;
+import java.io.Writer;
 import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
+import java.nio.file.*;
 import java.util.*;
 
-public class UpdateWeaponBasesFromTxt {
+/**
+ * Updates the "var bases = { ... }" block of item_metadata.js from Armor.txt and Weapons.txt.
+ * <p>
+ * Both tables come from {@link BaseCatalog}, keyed by the canonical base name (see {@link BaseCatalog#canonicalId(String)}).
+ * item_metadata.js is then patched in a single streaming pass and written once: every base entry gets
+ * the Armor.txt values first and the Weapons.txt values second, the same result the separate armor and
+ * weapon updaters produced when run in that order. Each table keeps its own report.
+ */
+public class BaseStatsUpdater {
     private static final String rootdir = System.getProperty("user.dir");
     private static final String dir = rootdir + "\\data\\";
-    private static final Path ARMOR_TXT = Paths.get(dir, "Weapons.txt");
     private static final Path ITEM_METADATA_JS = Paths.get(dir, "item_metadata.js");
-    private static final Map<String, List<String>> MAP = new LinkedHashMap<String, List<String>>() {{
+
+    private static final Source ARMOR = new Source(BaseCatalog.ARMOR, BaseCatalog.ARMOR_TXT, new LinkedHashMap<String, List<String>>() {{
+        put("minac", Arrays.asList("def_low"));
+        put("maxac", Arrays.asList("def_high", "base_defense"));
+        put("block", Arrays.asList("block"));
+        put("mindam", Arrays.asList("smite_min", "kick_min"));
+        put("maxdam", Arrays.asList("smite_max", "kick_max"));
+        put("reqstr", Arrays.asList("req_strength"));
+        put("gemsockets", Arrays.asList("max_sockets"));
+    }});
+    private static final Source WEAPONS = new Source(BaseCatalog.WEAPONS, BaseCatalog.WEAPONS_TXT, new LinkedHashMap<String, List<String>>() {{
         put("minac", Arrays.asList("def_low"));
         put("maxac", Arrays.asList("def_high", "base_defense"));
         put("block", Arrays.asList("block"));
@@ -20,163 +35,81 @@ public class UpdateWeaponBasesFromTxt {
         put("maxdam", Arrays.asList("base_damage_max"));
         put("reqstr", Arrays.asList("req_strength"));
         put("gemsockets", Arrays.asList("max_sockets"));
-    }};
+    }});
+    // Order matters: later sources are applied on top of earlier ones
+    private static final List<Source> SOURCES = Arrays.asList(ARMOR, WEAPONS);
 
     public static void main(String[] args) throws IOException {
-        // 1) Read Armor.txt
-        Map<String, Map<String, Integer>> armor = readArmorRows();
-        // 2) Read JS
-        List<String> js = Files.readAllLines(ITEM_METADATA_JS, StandardCharsets.UTF_8);
-        // 3) Update
-        UpdateReport report = new UpdateReport();
-        List<String> updated = updateBases(js, armor, report);
-        // 4) Write back
-        //  if (true)
-        //       throw new RuntimeException("Aborted");
-        Files.write(ITEM_METADATA_JS, updated, StandardCharsets.UTF_8);
-        // 5) Print summary
-        report.print();
-        System.out.println("Updated: " + ITEM_METADATA_JS.toAbsolutePath());
-    }
-
-    // -------- TSV reader (simple, robust like elsewhere in project) --------
-    private static Map<String, Map<String, Integer>> readArmorRows() throws IOException {
-        Map<String, Map<String, Integer>> byName = new LinkedHashMap<>();
-
-        try (BufferedReader br = new BufferedReader(new FileReader(ARMOR_TXT.toFile(), StandardCharsets.UTF_8))) {
-            String line;
-            String[] headers = null;
-
-            while ((line = br.readLine()) != null) {
-                line = stripBom(line);
-                if (line.trim().isEmpty()) continue;
-                String[] parts = line.split("\t", -1);
-
-                if (headers == null) {
-                    headers = parts;
-                    for (int i = 0; i < headers.length; i++) headers[i] = headers[i] == null ? "" : headers[i].trim();
-                    continue;
-                }
-
-                Map<String, String> row = new LinkedHashMap<>();
-                for (int i = 0; i < headers.length; i++) {
-                    String key = headers[i].isEmpty() ? ("col_" + i) : headers[i];
-                    row.put(key, i < parts.length ? parts[i] : "");
-                }
-
-                String rawName = safe(row.get("name")).trim();
-                if (rawName.isEmpty()) continue;
-
-                Map<String, Integer> vals = new HashMap<>();
-                putIntIfPositive(vals, "minac", row.get("minac"));
-                putIntIfPositive(vals, "maxac", row.get("maxac"));
-                putIntIfPositive(vals, "block", row.get("block"));
-                // use first occurrence of mindam/maxdam columns
-                putIntIfPositive(vals, "mindam", row.get("mindam"));
-                putIntIfPositive(vals, "maxdam", row.get("maxdam"));
-                putIntIfPositive(vals, "reqstr", row.get("reqstr"));
-                putIntIfPositive(vals, "gemsockets", row.get("gemsockets"));
-
-                // Store under multiple keys to improve matching: raw, normalized spaces->underscores, underscores->spaces
-                byName.put(rawName, vals);
-                byName.put(normalizeToUnderscores(rawName), vals);
-                byName.put(normalizeToSpaces(rawName), vals);
-            }
+        // 1) Read Armor.txt and Weapons.txt into one index (again, if they changed since the last run)
+        BaseCatalog.reset();
+        BaseCatalog catalog = BaseCatalog.get();
+        // 2) Patch item_metadata.js in one pass and write it once
+        List<UpdateReport> reports = new ArrayList<>();
+        for (int i = 0; i < SOURCES.size(); i++) reports.add(new UpdateReport());
+        updateBases(catalog, reports);
+        // 3) Print summary per table
+        for (Source source : SOURCES) {
+            System.out.println("== " + source.table.getFileName() + " ==");
+            reports.get(source.slot).print(source.table.getFileName().toString());
         }
-        return byName;
-    }
-
-    private static void putIntIfPositive(Map<String, Integer> map, String key, String raw) {
-        Integer v = parseInt(raw);
-        if (v != null && v > 0) map.put(key, v);
-    }
-
-    private static Integer parseInt(String s) {
-        if (s == null) return null;
-        s = s.trim();
-        if (s.isEmpty()) return null;
-        // accept integer only
-        if (!s.matches("-?\\d+")) return null;
-        try {
-            return Integer.parseInt(s);
-        } catch (NumberFormatException e) {
-            return null;
-        }
-    }
-
-    private static String stripBom(String s) {
-        if (s != null && !s.isEmpty() && s.charAt(0) == '\uFEFF') return s.substring(1);
-        return s;
+        System.out.println("Updated: " + ITEM_METADATA_JS.toAbsolutePath());
     }
 
-    private static String safe(String s) {
-        return s == null ? "" : s;
+    // Reads both tables and patches item_metadata.js in place
+    static Stage stage() {
+        List<Path> inputs = new ArrayList<>();
+        for (Source source : SOURCES) inputs.add(source.table);
+        inputs.add(ITEM_METADATA_JS);
+        return new Stage("BaseStatsUpdater", inputs, Collections.singletonList(ITEM_METADATA_JS), () -> main(new String[0]));
     }
 
     // -------- JS updater limited to "var bases = { ... }" --------
 
-    private static List<String> updateBases(List<String> lines,
-                                            Map<String, Map<String, Integer>> armorValues,
-                                            UpdateReport report) {
-
-        List<String> out = new ArrayList<>(lines.size());
-        boolean inBases = false;
-        int braceDepth = 0;
-
-        for (int i = 0; i < lines.size(); i++) {
-            String line = lines.get(i);
-            String trimmed = line.trim();
-
-            if (!inBases && trimmed.startsWith("var bases = {")) {
-                inBases = true;
-                braceDepth = count(trimmed, '{') - count(trimmed, '}');
-                out.add(line);
-                continue;
-            }
-
-            if (inBases) {
-                braceDepth += count(trimmed, '{') - count(trimmed, '}');
-
-                // End of bases block
-                if (braceDepth <= 0) {
-                    inBases = false;
-                    out.add(line);
-                    continue;
-                }
+    private static void updateBases(BaseCatalog catalog, List<UpdateReport> reports) throws IOException {
+        try (BufferedReader in = Files.newBufferedReader(ITEM_METADATA_JS, StandardCharsets.UTF_8);
+             OutputSink.Output sink = OutputSink.open(ITEM_METADATA_JS)) {
+            Writer out = sink.writer();
+            boolean inBases = false;
+            int braceDepth = 0;
 
-                // Detect entry start: key: {   (key can be quoted or not, may include spaces)
-                BaseKey key = parseBaseKeyStart(trimmed);
-                if (key != null) {
-                    // collect object lines until its closing brace at same nesting
-                    List<String> block = new ArrayList<>();
-                    block.add(line);
-/*
-                    int innerDepth = count(trimmed, '{') - count(trimmed, '}');
-                    int j = i + 1;
-                    for (; j < lines.size(); j++) {
-                        String l2 = lines.get(j);
-                        block.add(l2);
-                        String t2 = l2.trim();
-                        innerDepth += count(t2, '{') - count(t2, '}');
-                        if (innerDepth <= 0) break;
+            String line;
+            while ((line = in.readLine()) != null) {
+                String trimmed = line.trim();
+
+                if (!inBases && trimmed.startsWith("var bases = {")) {
+                    inBases = true;
+                    braceDepth = count(trimmed, '{') - count(trimmed, '}');
+                } else if (inBases) {
+                    braceDepth += count(trimmed, '{') - count(trimmed, '}');
+
+                    // End of bases block
+                    if (braceDepth <= 0) {
+                        inBases = false;
+                    } else {
+                        // Detect entry start: key: {   (key can be quoted or not, may include spaces)
+                        BaseKey key = parseBaseKeyStart(trimmed);
+                        if (key != null) {
+                            line = patchEntry(line, key.name, catalog.find(key.name), reports);
+                        }
                     }
-*/
-                    // Update and append
-                    block = splitEntry(line);
-                    List<String> newBlock = applyToBlock(block, key.name, armorValues, report);
-                    String newline = newBlock.toString();
-                    // System.out.println("Updated " + concatWithCommaExceptAfterFirst(newBlock));
-                    out.add(concatWithCommaExceptAfterFirst(newBlock));
-                    //out.addAll(newBlock);
-                    //   i = j; // advance
-                    continue;
                 }
-            }
 
-            out.add(line);
+                out.write(line);
+                out.write(System.lineSeparator());
+            }
+            sink.commit();
         }
+    }
 
-        return out;
+    // Applies every source to one single-line entry, in source order
+    private static String patchEntry(String line, String baseName, BaseCatalog.Base base, List<UpdateReport> reports) {
+        for (Source source : SOURCES) {
+            List<String> block = splitEntry(line);
+            Map<String, Integer> values = base == null ? null : base.stats(source.slot);
+            List<String> newBlock = applyToBlock(block, baseName, values, source, reports.get(source.slot));
+            line = concatWithCommaExceptAfterFirst(newBlock);
+        }
+        return line;
     }
 
     public static String concatWithCommaExceptAfterFirst(List<String> parts) {
@@ -199,7 +132,6 @@ public class UpdateWeaponBasesFromTxt {
         return sb.toString();
     }
 
-    // ... existing code ...
     public static List<String> splitEntry(String input) {
         List<String> parts = new ArrayList<>();
         if (input == null || input.isEmpty()) return parts;
@@ -299,7 +231,6 @@ public class UpdateWeaponBasesFromTxt {
         if (cur.length() > 0) out.add(cur.toString());
         return out;
     }
-    // ... existing code ...
 
     private static int count(String s, char c) {
         int n = 0;
@@ -331,10 +262,9 @@ public class UpdateWeaponBasesFromTxt {
 
     private static List<String> applyToBlock(List<String> block,
                                              String baseName,
-                                             Map<String, Map<String, Integer>> armorValues,
+                                             Map<String, Integer> row,
+                                             Source source,
                                              UpdateReport report) {
-        // Try several matching variants (raw, underscores, spaces)
-        Map<String, Integer> row = lookupArmorRow(armorValues, baseName);
         if (row == null || row.isEmpty()) {
             report.skipNoRow.add(baseName);
             return block;
@@ -354,7 +284,7 @@ public class UpdateWeaponBasesFromTxt {
                 continue;
             }
             String key = unquote(t.substring(0, colon).trim());
-            if (MAP.values().stream().anyMatch(list -> list.contains(key))) {
+            if (source.map.values().stream().anyMatch(list -> list.contains(key))) {
                 //  System.out.println("Found existing key " + key + " in block");
                 keyLineIdx.put(key, i);
             } else {
@@ -367,7 +297,7 @@ public class UpdateWeaponBasesFromTxt {
         Map<String, Integer> updates = new LinkedHashMap<>();
         for (Map.Entry<String, Integer> src : row.entrySet()) {
             //   System.out.println("Try " + baseName + " " + src.getKey() + " to " + src.getValue());
-            List<String> targets = MAP.get(src.getKey());
+            List<String> targets = source.map.get(src.getKey());
             if (targets == null) continue;
             Integer v = src.getValue();
             if (v == null || v <= 0) continue;
@@ -423,31 +353,17 @@ public class UpdateWeaponBasesFromTxt {
         return out;
     }
 
-    // -------- helpers --------
-    private static String normalizeToUnderscores(String s) {
-        if (s == null) return null;
-        return s.trim().replace(' ', '_');
-    }
-
-    private static String normalizeToSpaces(String s) {
-        if (s == null) return null;
-        return s.trim().replace('_', ' ');
-    }
+    private static class Source {
+        final int slot;
+        final Path table;
+        // Table column -> item_metadata.js keys it updates
+        final Map<String, List<String>> map;
 
-    private static Map<String, Integer> lookupArmorRow(Map<String, Map<String, Integer>> armorValues, String baseName) {
-        if (armorValues.containsKey(baseName)) return armorValues.get(baseName);
-        String u = normalizeToUnderscores(baseName);
-        if (armorValues.containsKey(u)) return armorValues.get(u);
-        String sp = normalizeToSpaces(baseName);
-        if (armorValues.containsKey(sp)) return armorValues.get(sp);
-        // last resort: case-insensitive match on these three variants
-        String[] tries = new String[]{baseName, u, sp};
-        for (String key : armorValues.keySet()) {
-            for (String q : tries) {
-                if (q != null && key.equalsIgnoreCase(q)) return armorValues.get(key);
-            }
+        Source(int slot, Path table, Map<String, List<String>> map) {
+            this.slot = slot;
+            this.table = table;
+            this.map = map;
         }
-        return null;
     }
 
     private static class BaseKey {
@@ -463,11 +379,11 @@ public class UpdateWeaponBasesFromTxt {
         final Set<String> skipNoRow = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
         final Set<String> skipNoKeys = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
 
-        void print() {
+        void print(String tableName) {
             System.out.println("Bases updated: " + updated.size());
             if (!updated.isEmpty()) System.out.println("  " + updated);
-            if (!skipNoRow.isEmpty()) System.out.println("No Armor.txt row for: " + skipNoRow);
+            if (!skipNoRow.isEmpty()) System.out.println("No " + tableName + " row for: " + skipNoRow);
             if (!skipNoKeys.isEmpty()) System.out.println("No matching existing keys in JS for: " + skipNoKeys);
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,169 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * Persistent record of what produced each generated file, used to skip stages whose inputs did not change.
+ * <p>
+ * For every artifact (a declared {@link Stage} output) the manifest keeps the stage that wrote it, the
+ * artifact's content hash and the content hash of every stage input at the time it was produced. A stage
+ * is up to date when all its outputs still have their recorded hash and all its inputs still have the
+ * hash they had when the outputs were produced. Files a stage edits in place are recorded with their
+ * content after the run, so an untouched file does not trigger a rebuild of its own stage.
+ * <p>
+ * Only declared files are tracked; a change to the updaters' code needs a forced run. A declared
+ * directory is hashed by its file listing ({@link ContentHash#ofTree(Path)}).
+ * <p>
+ * Stored as tab-separated lines: {@code artifact, artifact hash, stage, input, input hash}.
+ */
+public final class BuildManifest {
+
+    private static final String MISSING = "-";
+    private static final String HEADER = "#artifact\thash\tstage\tinput\tinput hash";
+
+    private final Path file;
+    private final Path root;
+    private final Map<Path, Artifact> artifacts = new LinkedHashMap<>();
+
+    private BuildManifest(Path file, Path root) {
+        this.file = file;
+        this.root = root;
+    }
+
+    /**
+     * Loads the manifest, or starts an empty one if the file does not exist or cannot be read.
+     * Paths under {@code root} are stored relative to it.
+     */
+    public static BuildManifest load(Path file, Path root) {
+        BuildManifest m = new BuildManifest(file, root.toAbsolutePath().normalize());
+        if (!Files.isRegularFile(file)) return m;
+        try {
+            for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+                if (line.isEmpty() || line.startsWith("#")) continue;
+                String[] cols = line.split("\t", -1);
+                if (cols.length != 5) continue;
+                Path artifact = m.resolve(cols[0]);
+                Artifact a = m.artifacts.computeIfAbsent(artifact, k -> new Artifact(cols[2], cols[1]));
+                if (!cols[3].isEmpty()) a.inputs.put(m.resolve(cols[3]), cols[4]);
+            }
+        } catch (IOException e) {
+            System.err.println("Ignoring build manifest " + file + ": " + e.getMessage());
+            m.artifacts.clear();
+        }
+        return m;
+    }
+
+    /**
+     * Hashes the stage inputs as they are now. Pass the result to {@link #isUpToDate} and {@link #record}.
+     */
+    public Map<Path, String> hashInputs(Stage stage) {
+        Map<Path, String> hashes = new LinkedHashMap<>();
+        for (Path p : stage.inputs()) {
+            hashes.put(p, hash(p));
+        }
+        return hashes;
+    }
+
+    public synchronized boolean isUpToDate(Stage stage, Map<Path, String> inputHashes) {
+        if (stage.outputs().isEmpty()) return false;
+        for (Path out : stage.outputs()) {
+            Artifact a = artifacts.get(out);
+            if (a == null || !a.stage.equals(stage.name()) || !a.inputs.equals(inputHashes)) return false;
+            if (!a.hash.equals(hash(out))) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Records the outputs of a successful run. {@code inputHashes} are the hashes taken before the run;
+     * inputs that are also outputs are re-hashed.
+     */
+    public void record(Stage stage, Map<Path, String> inputHashes) {
+        Map<Path, String> outputHashes = new LinkedHashMap<>();
+        for (Path out : stage.outputs()) {
+            outputHashes.put(out, hash(out));
+        }
+        Map<Path, String> inputs = new LinkedHashMap<>(inputHashes);
+        for (Map.Entry<Path, String> e : outputHashes.entrySet()) {
+            inputs.replace(e.getKey(), e.getValue());
+        }
+        synchronized (this) {
+            for (Map.Entry<Path, String> e : outputHashes.entrySet()) {
+                Artifact a = new Artifact(stage.name(), e.getValue());
+                a.inputs.putAll(inputs);
+                artifacts.put(e.getKey(), a);
+            }
+        }
+    }
+
+    /**
+     * Drops the stage's artifacts, e.g. after a failed run left them in an unknown state.
+     */
+    public synchronized void forget(Stage stage) {
+        for (Path out : stage.outputs()) {
+            artifacts.remove(out);
+        }
+    }
+
+    /**
+     * True when {@code p} is a recorded artifact whose content is still what its stage wrote, i.e. a
+     * change notification for it was caused by the pipeline itself.
+     */
+    public boolean matchesRecordedOutput(Path p) {
+        Artifact a;
+        synchronized (this) {
+            a = artifacts.get(p);
+        }
+        return a != null && a.hash.equals(hash(p));
+    }
+
+    public synchronized void save() throws IOException {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        Path tmp = Files.createTempFile(file.toAbsolutePath().getParent(), "manifest", ".tmp");
+        try (BufferedWriter w = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+            w.write(HEADER);
+            w.write('\n');
+            for (Map.Entry<Path, Artifact> e : artifacts.entrySet()) {
+                Artifact a = e.getValue();
+                String prefix = relative(e.getKey()) + "\t" + a.hash + "\t" + a.stage + "\t";
+                if (a.inputs.isEmpty()) {
+                    w.write(prefix + "\t\n");
+                }
+                for (Map.Entry<Path, String> in : a.inputs.entrySet()) {
+                    w.write(prefix + relative(in.getKey()) + "\t" + in.getValue() + "\n");
+                }
+            }
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private static String hash(Path p) {
+        try {
+            if (Files.isDirectory(p)) return ContentHash.ofTree(p);
+            return Files.isRegularFile(p) ? ContentHash.of(p) : MISSING;
+        } catch (IOException e) {
+            return MISSING;
+        }
+    }
+
+    private String relative(Path p) {
+        return p.startsWith(root) ? root.relativize(p).toString() : p.toString();
+    }
+
+    private Path resolve(String s) {
+        return root.resolve(s).normalize();
+    }
+
+    private static final class Artifact {
+        final String stage;
+        final String hash;
+        final Map<Path, String> inputs = new LinkedHashMap<>();
+
+        Artifact(String stage, String hash) {
+            this.stage = stage;
+            this.hash = hash;
+        }
+    }
+}
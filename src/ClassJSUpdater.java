@@ -1,10 +1,6 @@
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 public class ClassJSUpdater {
 
@@ -23,81 +19,18 @@ public class ClassJSUpdater {
                                         String varCodeKey,
                                         String label,
                                         String newNumbersCsv) throws IOException {
-        try {
-            updateNumberListException(amazonJsPath, varCodeKey, label, newNumbersCsv);
-        } catch (IllegalArgumentException e) {
-            System.err.println("Failed to update " + amazonJsPath.getFileName() + ": " + e.getMessage());
-        }
+        SkillJsPatchSession session = new SkillJsPatchSession();
+        session.updateNumberList(amazonJsPath, varCodeKey, label, newNumbersCsv);
+        session.commit();
     }
 
     public static void updateNumberList(Path amazonJsPath,
                                         String varCodeKey,
                                         List<String> label,
                                         String newNumbersCsv) throws IOException {
-        IllegalArgumentException e = null;
-        for (String l : label) {
-            try {
-                updateNumberListException(amazonJsPath, varCodeKey, l, newNumbersCsv);
-                return;
-            } catch (IllegalArgumentException ee) {
-                e = ee;
-            }
-        }
-        if (e != null)
-            System.err.println(e.getMessage());
-    }
-
-
-    private static void updateNumberListException(Path amazonJsPath,
-                                                  String varCodeKey,
-                                                  String label,
-                                                  String newNumbersCsv) throws IOException {
-        if (varCodeKey.startsWith("d"))
-            varCodeKey = varCodeKey.substring(1);
-        if (newNumbersCsv.startsWith(","))
-            newNumbersCsv = newNumbersCsv.substring(1);
-        String content = Files.readString(amazonJsPath, StandardCharsets.UTF_8);
-
-        // 1) Find the var block for the given key: var d<key> = {values:[ ... ]};
-        //    We capture everything from var d<key> through the matching ]}; of values.
-        String varPattern = "(?s)(/\\*\\[[^\\]]*\\]\\s*.*?\\*/\\s*)?var\\s+d" + Pattern.quote(varCodeKey) +
-                "\\s*=\\s*\\{\\s*values\\s*:\\s*\\[(.*?)\\]\\s*\\};";
-        Pattern pVar = Pattern.compile(varPattern);
-        Matcher mVar = pVar.matcher(content);
-        if (!mVar.find()) {
-            throw new IllegalArgumentException(amazonJsPath.getFileName().toFile() + " Could not find var d" + varCodeKey + " block.");
-        }
-
-        String valuesBlock = mVar.group(1) == null ? mVar.group(0) : mVar.group(0); // full matched block
-        String innerArrays = mVar.group(2); // content inside values: [ ... ] (inner arrays)
-
-        // 2) Inside inner arrays, find the one with the given label: ["label", ...numbers...]
-        //    We capture the list after the first comma up to the closing bracket of this inner array.
-        String arrayPattern = "(?s)\\[\\s*\"" + Pattern.quote(label) + "\"\\s*,\\s*(.*?)\\s*\\]";
-        Pattern pArr = Pattern.compile(arrayPattern);
-        Matcher mArr = pArr.matcher(innerArrays);
-        if (!mArr.find()) {
-            throw new IllegalArgumentException(amazonJsPath.getFileName().toString() + " Label \"" + label + "\" not found under d" + varCodeKey + ".");
-        }
-
-        String oldNumbers = mArr.group(1);
-
-        // 3) Replace old numbers with the new list
-        String newInnerArrays = new StringBuilder(innerArrays)
-                .replace(mArr.start(1), mArr.end(1), newNumbersCsv)
-                .toString();
-
-        // 4) Rebuild the whole content: replace only the inner arrays part of this var block
-        // Reconstruct the specific var block with updated inner arrays
-        String updatedVarBlock = mVar.group(0).replace(innerArrays, newInnerArrays);
-
-        // 5) Replace in the full file
-        String updatedContent = new StringBuilder(content)
-                .replace(mVar.start(), mVar.end(), updatedVarBlock)
-                .toString();
-
-        Files.writeString(amazonJsPath, updatedContent, StandardCharsets.UTF_8);
-        //System.out.println("Updated " + amazonJsPath.getFileName() + ".");
+        SkillJsPatchSession session = new SkillJsPatchSession();
+        session.updateNumberList(amazonJsPath, varCodeKey, label, newNumbersCsv);
+        session.commit();
     }
 
     public static final String dir = System.getProperty("user.dir") + "\\data\\skills\\PD2\\";
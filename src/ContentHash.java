@@ -0,0 +1,88 @@
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * SHA-256 content hashes, as lower-case hex, used to key caches and manifests.
+ */
+public final class ContentHash {
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private ContentHash() {
+    }
+
+    public static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            // Every JRE ships SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Hash of the remaining bytes of {@code bytes}; the buffer's position is left unchanged.
+     */
+    public static String of(ByteBuffer bytes) {
+        MessageDigest md = newDigest();
+        md.update(bytes.duplicate());
+        return hex(md.digest());
+    }
+
+    public static String of(byte[] bytes) {
+        return hex(newDigest().digest(bytes));
+    }
+
+    public static String of(Path file) throws IOException {
+        MessageDigest md = newDigest();
+        byte[] buf = new byte[64 * 1024];
+        try (InputStream in = Files.newInputStream(file)) {
+            int n;
+            while ((n = in.read(buf)) > 0) {
+                md.update(buf, 0, n);
+            }
+        }
+        return hex(md.digest());
+    }
+
+    /**
+     * Hash of a directory listing: the relative path, size and modification time of every file below
+     * {@code dir}, in sorted order. Cheap enough for image folders; file contents are not read.
+     */
+    public static String ofTree(Path dir) throws IOException {
+        List<String> entries = new ArrayList<>();
+        try (Stream<Path> walk = Files.walk(dir)) {
+            for (Path p : (Iterable<Path>) walk::iterator) {
+                if (!Files.isRegularFile(p)) continue;
+                entries.add(dir.relativize(p).toString().replace('\\', '/') + "\t" + Files.size(p)
+                        + "\t" + Files.getLastModifiedTime(p).toMillis());
+            }
+        }
+        Collections.sort(entries);
+        MessageDigest md = newDigest();
+        for (String e : entries) {
+            md.update(e.getBytes(StandardCharsets.UTF_8));
+            md.update((byte) '\n');
+        }
+        return hex(md.digest());
+    }
+
+    public static String hex(byte[] digest) {
+        char[] out = new char[digest.length * 2];
+        for (int i = 0; i < digest.length; i++) {
+            out[i * 2] = HEX[(digest[i] >> 4) & 0xF];
+            out[i * 2 + 1] = HEX[digest[i] & 0xF];
+        }
+        return new String(out);
+    }
+}
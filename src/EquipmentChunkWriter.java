@@ -0,0 +1,186 @@
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Chunked output of {@code var equipment}: one script per group (helm, armor, weapon, charms, ...) plus
+ * a manifest.json, so the planner can load the slots it renders first and the rest later.
+ * <p>
+ * Each chunk is a plain script that adds its group to the global:
+ * <pre>
+ *   var equipment = equipment || {};
+ *   equipment["helm"] = [ ... ];
+ * </pre>
+ * Loading every chunk listed in the manifest, in order, gives the same object as items_equipment.js.
+ * The manifest lists the groups in that order with each file's SHA-256 and size:
+ * <pre>
+ *   {"version": 1, "groups": [{"name": "helm", "file": "helm.js", "sha256": "...", "bytes": 1234}, ...]}
+ * </pre>
+ * Files go through {@link OutputSink}, so unchanged chunks keep their mtime; chunks of groups that no
+ * longer exist are deleted.
+ */
+public final class EquipmentChunkWriter {
+
+    private static final String MANIFEST = "manifest.json";
+
+    private final Path dir;
+    private final List<String[]> entries = new ArrayList<>(); // name, file, sha256, bytes
+    private OutputSink.Output current;
+    private String currentName;
+
+    public EquipmentChunkWriter(Path dir) throws IOException {
+        this.dir = dir;
+        Files.createDirectories(dir);
+    }
+
+    /**
+     * Starts the chunk of {@code group}. The returned writer copies everything to {@code main} as well,
+     * so the array text is produced once for both outputs. Finish with {@link #endGroup()}.
+     */
+    public Writer beginGroup(String group, Writer main) throws IOException {
+        current = OutputSink.open(dir.resolve(group + ".js"));
+        currentName = group;
+        Writer chunk = current.writer();
+        chunk.write("var equipment = equipment || {};\n");
+        chunk.write("equipment[\"" + group + "\"] = ");
+        return new Tee(main, chunk);
+    }
+
+    public void endGroup() throws IOException {
+        try (OutputSink.Output out = current) {
+            out.writer().write(";\n");
+            out.commit();
+            entries.add(new String[]{currentName, currentName + ".js", out.hash(), Long.toString(out.size())});
+        } finally {
+            current = null;
+        }
+    }
+
+    /**
+     * Writes a chunk for every {@code key: [...]} entry of a hand-written object body such as the
+     * CharmsData.txt footer.
+     */
+    public void addGroups(String objectBody, Writer main) throws IOException {
+        main.write(objectBody);
+        for (Map.Entry<String, String> e : splitEntries(objectBody).entrySet()) {
+            Writer chunk = beginGroup(e.getKey(), Writer.nullWriter());
+            chunk.write(e.getValue());
+            endGroup();
+        }
+    }
+
+    /**
+     * Writes manifest.json and deletes chunks of groups that were not written this time.
+     */
+    public void finish() throws IOException {
+        StringBuilder sb = new StringBuilder("{\"version\": 1, \"groups\": [\n");
+        Set<String> keep = new HashSet<>();
+        keep.add(MANIFEST);
+        for (int i = 0; i < entries.size(); i++) {
+            String[] e = entries.get(i);
+            keep.add(e[1]);
+            sb.append("  {\"name\": \"").append(e[0]).append("\", \"file\": \"").append(e[1])
+                    .append("\", \"sha256\": \"").append(e[2]).append("\", \"bytes\": ").append(e[3]).append('}');
+            sb.append(i + 1 < entries.size() ? ",\n" : "\n");
+        }
+        sb.append("]}\n");
+        OutputSink.write(dir.resolve(MANIFEST), sb.toString());
+
+        try (DirectoryStream<Path> ds = Files.newDirectoryStream(dir, "*.js")) {
+            for (Path p : ds) {
+                if (!keep.contains(p.getFileName().toString())) Files.deleteIfExists(p);
+            }
+        }
+    }
+
+    /**
+     * Splits a JS object body ({@code a: [...], b: [...]}) into its top-level entries, skipping strings
+     * and comments. Values are returned verbatim, without the separating commas.
+     */
+    static Map<String, String> splitEntries(String body) {
+        Map<String, String> out = new LinkedHashMap<>();
+        int n = body.length();
+        int i = 0;
+        while (i < n) {
+            // key
+            while (i < n && !Character.isJavaIdentifierStart(body.charAt(i))) i++;
+            int keyStart = i;
+            while (i < n && Character.isJavaIdentifierPart(body.charAt(i))) i++;
+            if (keyStart == i) break;
+            String key = body.substring(keyStart, i);
+            while (i < n && body.charAt(i) != ':') i++;
+            int valueStart = ++i;
+
+            // value, up to the comma that closes it at depth 0
+            int depth = 0;
+            while (i < n) {
+                char c = body.charAt(i);
+                if (c == '"' || c == '\'') {
+                    i = skipString(body, i);
+                    continue;
+                }
+                if (c == '/' && i + 1 < n && body.charAt(i + 1) == '/') {
+                    while (i < n && body.charAt(i) != '\n') i++;
+                    continue;
+                }
+                if (c == '[' || c == '{') depth++;
+                else if (c == ']' || c == '}') depth--;
+                else if (c == ',' && depth == 0) break;
+                i++;
+            }
+            out.put(key, body.substring(valueStart, i).trim());
+            i++;
+        }
+        return out;
+    }
+
+    private static int skipString(String s, int i) {
+        char quote = s.charAt(i++);
+        while (i < s.length() && s.charAt(i) != quote) {
+            if (s.charAt(i) == '\\') i++;
+            i++;
+        }
+        return i + 1;
+    }
+
+    private static final class Tee extends Writer {
+        private final Writer a;
+        private final Writer b;
+
+        Tee(Writer a, Writer b) {
+            this.a = a;
+            this.b = b;
+        }
+
+        @Override
+        public void write(char[] cbuf, int off, int len) throws IOException {
+            a.write(cbuf, off, len);
+            b.write(cbuf, off, len);
+        }
+
+        @Override
+        public void write(String str, int off, int len) throws IOException {
+            a.write(str, off, len);
+            b.write(str, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            a.flush();
+            b.flush();
+        }
+
+        // The chunk is closed by endGroup(), the main writer by its owner
+        @Override
+        public void close() {
+        }
+    }
+}
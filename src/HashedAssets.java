@@ -0,0 +1,121 @@
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Post-emit stage: writes a content-addressed copy of every generated data script
+ * ({@code items_equipment.js} to {@code items_equipment.<hash>.js}, next to the original) and a manifest
+ * mapping each logical path to its current copy:
+ * <pre>
+ *   data/asset-manifest.json   {"data/items_equipment.js": "data/items_equipment.3f2a1b9c0d.js", ...}
+ *   data/asset_manifest.js     var assetManifest = {...};
+ * </pre>
+ * A hashed copy never changes, so the site can serve it with a far-future cache lifetime; a redeploy only
+ * adds copies for the files whose content changed. Copies of older content are deleted.
+ * Paths are relative to the project root with '/' separators. index.html loads asset_manifest.js with a
+ * fresh query string on every page load, so a browser never follows a cached manifest to a deleted copy,
+ * and loads the data scripts through it.
+ * <p>
+ * The copies and manifests are build outputs and are not committed (see .gitignore): a deploy built by
+ * Update_All ships them, while a checkout without them loads the plain scripts, so an edit to those is
+ * never hidden behind an older copy.
+ * <p>
+ * The copies' names depend on their content, so the stage cannot declare them as outputs; before it is
+ * skipped, {@link #copiesIntact()} checks that every copy in the manifest is still there.
+ */
+public class HashedAssets {
+
+    private static final String rootdir = System.getProperty("user.dir");
+    private static final String dir = rootdir + "\\data\\";
+    private static final Path MANIFEST_JSON = Paths.get(dir, "asset-manifest.json");
+    private static final Path MANIFEST_JS = Paths.get(dir, "asset_manifest.js");
+    // Hex digits of the SHA-256 kept in the file name
+    private static final int HASH_LENGTH = 10;
+    // "logical path": "hashed path" in asset-manifest.json
+    private static final Pattern ENTRY = Pattern.compile("\"([^\"]+)\": \"([^\"]+)\"");
+
+    public static void main(String[] args) throws IOException {
+        Path root = Paths.get(rootdir).toAbsolutePath().normalize();
+        List<String[]> entries = new ArrayList<>(); // logical path, hashed path
+        int written = 0;
+        for (Path source : MinifiedArtifacts.sources()) {
+            if (!Files.isRegularFile(source)) {
+                System.err.println("Missing " + source.toAbsolutePath());
+                continue;
+            }
+            byte[] content = Files.readAllBytes(source);
+            String hash = ContentHash.of(content).substring(0, HASH_LENGTH);
+            Path copy = hashedName(source, hash);
+            if (OutputSink.write(copy, content)) written++;
+            pruneOlder(source, copy);
+            entries.add(new String[]{relative(root, source), relative(root, copy)});
+        }
+
+        StringBuilder json = new StringBuilder("{\n");
+        for (int i = 0; i < entries.size(); i++) {
+            json.append("  \"").append(entries.get(i)[0]).append("\": \"").append(entries.get(i)[1]).append('"');
+            json.append(i + 1 < entries.size() ? ",\n" : "\n");
+        }
+        json.append("}");
+        OutputSink.write(MANIFEST_JSON, json + "\n");
+        OutputSink.write(MANIFEST_JS, "var assetManifest = " + json + ";\n");
+
+        System.out.println("Hashed assets: " + entries.size() + " (" + written + " new); manifest: " + MANIFEST_JSON.toAbsolutePath());
+    }
+
+    static Stage stage() {
+        return new Stage("HashedAssets", MinifiedArtifacts.sources(), List.of(MANIFEST_JSON, MANIFEST_JS),
+                () -> main(new String[0]), HashedAssets::copiesIntact);
+    }
+
+    // Every copy asset-manifest.json points at exists and still has the content its name was taken from
+    static boolean copiesIntact() throws IOException {
+        if (!Files.isRegularFile(MANIFEST_JSON)) return false;
+        Path root = Paths.get(rootdir).toAbsolutePath().normalize();
+        Matcher m = ENTRY.matcher(Files.readString(MANIFEST_JSON));
+        while (m.find()) {
+            Path copy = root.resolve(m.group(2));
+            String name = copy.getFileName().toString();
+            String hash = name.substring(name.length() - ".js".length() - HASH_LENGTH, name.length() - ".js".length());
+            if (!Files.isRegularFile(copy) || !ContentHash.of(copy).startsWith(hash)) return false;
+        }
+        return true;
+    }
+
+    // items_equipment.js -> items_equipment.<hash>.js
+    private static Path hashedName(Path source, String hash) {
+        String name = source.getFileName().toString();
+        return source.resolveSibling(stem(name) + "." + hash + ".js");
+    }
+
+    private static String stem(String name) {
+        return name.substring(0, name.length() - ".js".length());
+    }
+
+    // Deletes "<stem>.<hash>.js" siblings other than keep
+    private static void pruneOlder(Path source, Path keep) throws IOException {
+        String prefix = stem(source.getFileName().toString()) + ".";
+        Path parent = source.toAbsolutePath().getParent();
+        try (DirectoryStream<Path> ds = Files.newDirectoryStream(parent, prefix + "*.js")) {
+            for (Path p : ds) {
+                String name = p.getFileName().toString();
+                String middle = name.substring(prefix.length(), name.length() - ".js".length());
+                if (!p.getFileName().equals(keep.getFileName()) && middle.matches("[0-9a-f]{" + HASH_LENGTH + "}")) {
+                    Files.deleteIfExists(p);
+                }
+            }
+        }
+    }
+
+    private static String relative(Path root, Path p) {
+        Path abs = p.toAbsolutePath().normalize();
+        String s = abs.startsWith(root) ? root.relativize(abs).toString() : abs.toString();
+        return s.replace('\\', '/');
+    }
+}
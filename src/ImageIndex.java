@@ -0,0 +1,100 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * The item images under images/items, read in one walk: each top-level folder (armor, weapon, ...) is walked
+ * on its own thread. Lookups never touch the disk.
+ * <p>
+ * Paths are matched ignoring case and separator, so "weapon/thrown/special/achilles_strike.png" finds
+ * weapon\thrown\special\Achilles_Strike.png on any OS, the way Windows matched it.
+ */
+final class ImageIndex {
+
+    static final Path ITEMS = Paths.get(System.getProperty("user.dir"), "images", "items");
+    private static final String EXTENSION = ".png";
+
+    private final Path root;
+    // normalized relative path -> file
+    private final Map<String, Path> files;
+
+    private ImageIndex(Path root, Map<String, Path> files) {
+        this.root = root;
+        this.files = files;
+    }
+
+    static ImageIndex load() {
+        return load(ITEMS);
+    }
+
+    static ImageIndex load(Path root) {
+        Map<String, Path> files = new ConcurrentHashMap<>(2048);
+        if (!Files.isDirectory(root)) return new ImageIndex(root, files);
+        List<Path> top;
+        try (Stream<Path> s = Files.list(root)) {
+            top = s.collect(Collectors.toList());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to list " + root, e);
+        }
+        top.parallelStream().forEach(start -> {
+            try (Stream<Path> s = Files.walk(start)) {
+                s.filter(Files::isRegularFile)
+                        .filter(p -> p.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(EXTENSION))
+                        .forEach(p -> files.put(normalize(root.relativize(p).toString()), p));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to walk " + start, e);
+            }
+        });
+        return new ImageIndex(root, Collections.unmodifiableMap(files));
+    }
+
+    /**
+     * Path of the image of {@code name} in {@code group}, relative to images/items:
+     * "group/[subGroup/][special/]name.png", spaces in the name as underscores.
+     */
+    static String relativePath(String group, String subGroup, boolean special, String name) {
+        StringBuilder sb = new StringBuilder(64).append(group.toLowerCase(Locale.ROOT)).append('/');
+        if (subGroup != null && !subGroup.isEmpty()) sb.append(subGroup.toLowerCase(Locale.ROOT)).append('/');
+        if (special) sb.append("special/");
+        return sb.append(name.replace(' ', '_')).append(EXTENSION).toString();
+    }
+
+    boolean contains(String relativePath) {
+        return files.containsKey(normalize(relativePath));
+    }
+
+    // The file, or where it would be if missing
+    Path resolve(String relativePath) {
+        Path p = files.get(normalize(relativePath));
+        return p != null ? p : root.resolve(relativePath);
+    }
+
+    // The relative paths with no image, in the order given
+    Set<String> missing(Collection<String> relativePaths) {
+        Set<String> missing = new LinkedHashSet<>();
+        for (String p : relativePaths) {
+            if (!files.containsKey(normalize(p))) missing.add(p);
+        }
+        return missing;
+    }
+
+    int size() {
+        return files.size();
+    }
+
+    private static String normalize(String path) {
+        return path.replace('\\', '/').toLowerCase(Locale.ROOT);
+    }
+}
@@ -1,6 +1,5 @@
-import java.io.BufferedReader;
-import java.io.BufferedWriter;
 import java.io.IOException;
+import java.io.Writer;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -57,58 +56,47 @@ public class ItemMapParser {
     }
 
     private static Result parseUniqueItems(Path input) throws IOException {
-        try (BufferedReader reader = Files.newBufferedReader(input, StandardCharsets.UTF_8)) {
-            String headerLine = reader.readLine();
-            if (headerLine == null) {
-                throw new IllegalArgumentException("Input file is empty.");
-            }
-
-            Map<String, Integer> headerIndex = indexHeader(headerLine);
-            int typeIdx = firstPresentIndex(headerIndex, "*type", "type");
-            if (typeIdx < 0) {
-                throw new IllegalArgumentException("Column '*type' not found in header.");
-            }
-
-            int[] propIdx = new int[11];
-            for (int i = 1; i <= 11; i++) {
-                String key = ("prop" + i).toLowerCase();
-                propIdx[i - 1] = headerIndex.getOrDefault(key, -1);
-            }
+        TsvTable table = TsvTable.read(input);
+        if (table.columnCount() == 0) {
+            throw new IllegalArgumentException("Input file is empty.");
+        }
 
-            Set<String> propValues = new TreeSet<>();
-            Set<String> typeValues = new TreeSet<>();
+        Map<String, Integer> headerIndex = indexHeader(table);
+        int typeIdx = firstPresentIndex(headerIndex, "*type", "type");
+        if (typeIdx < 0) {
+            throw new IllegalArgumentException("Column '*type' not found in header.");
+        }
 
-            String line;
-            while ((line = reader.readLine()) != null) {
-                if (line.isEmpty()) continue;
+        int[] propIdx = new int[11];
+        for (int i = 1; i <= 11; i++) {
+            String key = ("prop" + i).toLowerCase();
+            propIdx[i - 1] = headerIndex.getOrDefault(key, -1);
+        }
 
-                String[] cells = line.split("\t", -1);
+        Set<String> propValues = new TreeSet<>();
+        Set<String> typeValues = new TreeSet<>();
 
-                // *type
-                if (typeIdx >= 0 && typeIdx < cells.length) {
-                    String v = cells[typeIdx].trim();
-                    if (!v.isEmpty()) typeValues.add(v);
-                }
+        for (int r = 0; r < table.rowCount(); r++) {
+            // *type
+            String type = table.get(typeIdx, r).trim();
+            if (!type.isEmpty()) typeValues.add(type);
 
-                // prop1..prop11
-                for (int idx : propIdx) {
-                    if (idx >= 0 && idx < cells.length) {
-                        String v = cells[idx].trim();
-                        if (!v.isEmpty()) propValues.add(v);
-                    }
-                }
+            // prop1..prop11
+            for (int idx : propIdx) {
+                String v = table.get(idx, r).trim();
+                if (!v.isEmpty()) propValues.add(v);
             }
-
-            return new Result(propValues, typeValues);
         }
+
+        return new Result(propValues, typeValues);
     }
 
-    private static Map<String, Integer> indexHeader(String headerLine) {
-        String[] headers = headerLine.split("\t", -1);
-        Map<String, Integer> index = new HashMap<>(headers.length * 2);
-        for (int i = 0; i < headers.length; i++) {
-            String key = headers[i] == null ? "" : headers[i].trim().toLowerCase();
-            if (!key.isEmpty() && !index.containsKey(key)) {
+    // Case-insensitive header lookup; the first occurrence of a name wins.
+    private static Map<String, Integer> indexHeader(TsvTable table) {
+        Map<String, Integer> index = new HashMap<>(table.columnCount() * 2);
+        for (int i = 0; i < table.columnCount(); i++) {
+            String key = table.header(i).toLowerCase();
+            if (!index.containsKey(key)) {
                 index.put(key, i);
             }
         }
@@ -125,7 +113,8 @@ public class ItemMapParser {
     }
 
     private static void writeItemMapJava(Path output, Set<String> propValues, Set<String> typeValues) throws IOException {
-        try (BufferedWriter w = Files.newBufferedWriter(output, StandardCharsets.UTF_8)) {
+        try (OutputSink.Output sink = OutputSink.open(output)) {
+            Writer w = sink.writer();
             w.write("// Auto-generated by GenerateItemMap. Do not edit manually.\n");
             w.write("import java.util.Collections;\n");
             w.write("import java.util.LinkedHashMap;\n");
@@ -153,6 +142,7 @@ public class ItemMapParser {
 
             w.write("    private itemmap() {}\n");
             w.write("}\n");
+            sink.commit();
         }
     }
 
@@ -0,0 +1,205 @@
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+/**
+ * Conservative minifier for the generated data scripts.
+ * <p>
+ * Removes comments and whitespace and shortens plain decimals ({@code 1.50} to {@code 1.5}, {@code 0.5}
+ * to {@code .5}); it does not rename anything. Strings, template literals and regular expressions are
+ * copied verbatim. A line break is only dropped where automatic semicolon insertion cannot apply:
+ * after a token that needs a continuation ({@code { ( [ , ; : =} and binary operators other than
+ * {@code + - /}) or before one that cannot start a statement ({@code } ) ] , ; : . ?} and the like).
+ * Everywhere else it stays a line break, so {@code return}, {@code x++} and similar keep their meaning.
+ * <p>
+ * Template literals are copied up to the next unescaped backtick; nested templates inside
+ * {@code ${...}} are not supported (the data files have none).
+ */
+public final class JsMinifier {
+
+    private static final String NO_ASI_AFTER = "{([,;:=*%&|^!~?<>";
+    private static final String NO_ASI_BEFORE = "})],;:.?=*%&|^<>";
+    // After these a '/' starts a regular expression rather than a division ('+' and '-' unless doubled)
+    private static final String REGEX_AFTER = "(,=:[!&|?{};+-*%<>~^";
+
+    private final String src;
+    private final StringBuilder out;
+    private int i;
+    private boolean space;
+    private boolean newline;
+    // The last token was a regular expression; an identifier after it would read as its flags
+    private boolean afterRegex;
+
+    private JsMinifier(String src) {
+        this.src = src;
+        this.out = new StringBuilder(src.length());
+    }
+
+    /**
+     * Minifies files given as pairs: {@code java src/JsMinifier.java in.js out.min.js [in2.js out2.min.js ...]}.
+     * tests/minified.test.js runs it this way.
+     */
+    public static void main(String[] args) throws IOException {
+        for (int k = 0; k + 1 < args.length; k += 2) {
+            String src = new String(Files.readAllBytes(Paths.get(args[k])), StandardCharsets.UTF_8);
+            Files.write(Paths.get(args[k + 1]), minify(src).getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    public static String minify(String src) {
+        JsMinifier m = new JsMinifier(src);
+        m.run();
+        return m.out.toString();
+    }
+
+    private void run() {
+        int n = src.length();
+        while (i < n) {
+            char c = src.charAt(i);
+            if (c == '\n' || c == '\r' || c == '\u2028' || c == '\u2029') {
+                newline = true;
+                i++;
+            } else if (Character.isWhitespace(c) || c == '\u00A0' || c == '\uFEFF') {
+                space = true;
+                i++;
+            } else if (c == '/' && peek(1) == '/') {
+                while (i < n && src.charAt(i) != '\n' && src.charAt(i) != '\r') i++;
+            } else if (c == '/' && peek(1) == '*') {
+                int end = src.indexOf("*/", i + 2);
+                end = end < 0 ? n : end + 2;
+                if (src.substring(i, end).indexOf('\n') >= 0) newline = true;
+                else space = true;
+                i = end;
+            } else {
+                separate(c);
+                if (c == '"' || c == '\'' || c == '`') {
+                    copyQuoted(c);
+                } else if (c == '/' && regexAllowed()) {
+                    copyRegex();
+                    afterRegex = true;
+                } else if ((isDigit(c) || (c == '.' && isDigit(peek(1)))) && !isIdent(last())) {
+                    number();
+                } else {
+                    out.append(c);
+                    i++;
+                }
+            }
+        }
+    }
+
+    // Emits the whitespace seen since the last token, if any is needed before next
+    private void separate(char next) {
+        char prev = last();
+        if (prev != 0 && newline && NO_ASI_AFTER.indexOf(prev) < 0 && NO_ASI_BEFORE.indexOf(next) < 0) {
+            out.append('\n');
+        } else if (prev != 0 && (space || newline) && (needsSpace(prev, next) || (afterRegex && isIdent(next)))) {
+            out.append(' ');
+        }
+        space = false;
+        newline = false;
+        afterRegex = false;
+    }
+
+    private boolean needsSpace(char prev, char next) {
+        if (isIdent(prev) && (isIdent(next) || (next == '.' && isDigit(peek(1))))) return true;
+        if (isDigit(prev) && next == '.') return true; // "1 .toString()"
+        if ((prev == '+' || prev == '-') && next == prev) return true; // "a + +b", "a - -b"
+        return prev == '/' && (next == '/' || next == '*');
+    }
+
+    private void copyQuoted(char quote) {
+        int n = src.length();
+        out.append(quote);
+        i++;
+        while (i < n) {
+            char c = src.charAt(i++);
+            out.append(c);
+            if (c == '\\' && i < n) {
+                out.append(src.charAt(i++));
+            } else if (c == quote) {
+                return;
+            }
+        }
+    }
+
+    private boolean regexAllowed() {
+        char prev = last();
+        if (prev == '+' || prev == '-') {
+            // Unless it ends "++" / "--" ("i++ / 2"); separate '+' tokens always get a space between them
+            return out.length() < 2 || out.charAt(out.length() - 2) != prev;
+        }
+        if (prev == 0 || REGEX_AFTER.indexOf(prev) >= 0) return true;
+        if (!isIdent(prev)) return false;
+        int s = out.length();
+        while (s > 0 && isIdent(out.charAt(s - 1))) s--;
+        String word = out.substring(s);
+        return word.equals("return") || word.equals("typeof") || word.equals("case") || word.equals("in")
+                || word.equals("of") || word.equals("void") || word.equals("delete") || word.equals("throw");
+    }
+
+    private void copyRegex() {
+        int n = src.length();
+        boolean inClass = false;
+        out.append('/');
+        i++;
+        while (i < n) {
+            char c = src.charAt(i++);
+            out.append(c);
+            if (c == '\\' && i < n) {
+                out.append(src.charAt(i++));
+            } else if (c == '[') {
+                inClass = true;
+            } else if (c == ']') {
+                inClass = false;
+            } else if (c == '/' && !inClass) {
+                return; // flags follow as ordinary identifier characters
+            }
+        }
+    }
+
+    private void number() {
+        int n = src.length();
+        int start = i;
+        while (i < n) {
+            char c = src.charAt(i);
+            boolean exponentSign = (c == '+' || c == '-') && (src.charAt(i - 1) == 'e' || src.charAt(i - 1) == 'E')
+                    && !src.startsWith("0x", start) && !src.startsWith("0X", start);
+            if (!(isIdent(c) || c == '.' || exponentSign)) break;
+            i++;
+        }
+        String num = src.substring(start, i);
+        out.append(i < n && src.charAt(i) == '.' ? num : shorten(num));
+    }
+
+    // "1.50" -> "1.5", "2.0" -> "2", "0.25" -> ".25"; anything but plain decimals is left alone
+    static String shorten(String num) {
+        int dot = num.indexOf('.');
+        if (dot <= 0 || dot == num.length() - 1) return num;
+        for (int k = 0; k < num.length(); k++) {
+            if (k != dot && !isDigit(num.charAt(k))) return num;
+        }
+        int end = num.length();
+        while (end > dot + 1 && num.charAt(end - 1) == '0') end--;
+        String intPart = num.substring(0, dot);
+        String frac = num.substring(dot + 1, end);
+        if (frac.isEmpty()) return intPart;
+        return (intPart.equals("0") ? "" : intPart) + "." + frac;
+    }
+
+    private char last() {
+        return out.length() == 0 ? 0 : out.charAt(out.length() - 1);
+    }
+
+    private char peek(int ahead) {
+        return i + ahead < src.length() ? src.charAt(i + ahead) : 0;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isIdent(char c) {
+        return Character.isLetterOrDigit(c) || c == '_' || c == '$' || c > 0x7F && Character.isUnicodeIdentifierPart(c);
+    }
+}
@@ -0,0 +1,105 @@
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Post-emit stage: writes a minified ({@code .min.js}, see {@link JsMinifier}) and a gzipped
+ * ({@code .min.js.gz}, maximum compression) variant of every generated data script to build/minified,
+ * and a size report to build/artifact-sizes.tsv. The page does not load the variants, so they stay out
+ * of data/.
+ * <p>
+ * The gzip stream has no file name and a zero timestamp, so unchanged content gives identical bytes and
+ * {@link OutputSink} leaves the file alone.
+ */
+public class MinifiedArtifacts {
+
+    private static final String rootdir = System.getProperty("user.dir");
+    private static final String dir = rootdir + "\\data\\";
+    private static final Path REPORT = Paths.get(rootdir, "build", "artifact-sizes.tsv");
+    // Flat: the script names are unique
+    private static final Path OUT_DIR = Paths.get(rootdir, "build", "minified");
+
+    public static void main(String[] args) throws IOException {
+        StringBuilder report = new StringBuilder("#file\tbytes\tmin bytes\tgzip bytes\tgzip %\n");
+        long total = 0, totalMin = 0, totalGz = 0;
+        for (Path source : sources()) {
+            if (!Files.isRegularFile(source)) {
+                System.err.println("Missing " + source.toAbsolutePath());
+                continue;
+            }
+            byte[] original = Files.readAllBytes(source);
+            byte[] min = JsMinifier.minify(new String(original, StandardCharsets.UTF_8)).getBytes(StandardCharsets.UTF_8);
+            byte[] gz = gzip(min);
+            OutputSink.write(variant(source, ".min.js"), min);
+            OutputSink.write(variant(source, ".min.js.gz"), gz);
+
+            total += original.length;
+            totalMin += min.length;
+            totalGz += gz.length;
+            report.append(line(source.getFileName().toString(), original.length, min.length, gz.length));
+        }
+        report.append(line("total", total, totalMin, totalGz));
+        OutputSink.write(REPORT, report.toString());
+
+        System.out.println(String.format(Locale.ROOT, "Minified %d bytes to %d (gzip %d, %.1f%%); report: %s",
+                total, totalMin, totalGz, percent(totalGz, total), REPORT.toAbsolutePath()));
+    }
+
+    // The generated scripts the site loads
+    static List<Path> sources() {
+        List<Path> files = new ArrayList<>(Arrays.asList(Paths.get(dir, "items_equipment.js"),
+                Paths.get(dir, "item_metadata.js"), Paths.get(dir, "item_runewords.js")));
+        for (String cls : Arrays.asList(ClassJSUpdater.amazon, ClassJSUpdater.assassin, ClassJSUpdater.barbarian,
+                ClassJSUpdater.druid, ClassJSUpdater.necromancer, ClassJSUpdater.paladin, ClassJSUpdater.sorceress,
+                ClassJSUpdater.dir + "universal_skills.js")) {
+            files.add(Paths.get(cls));
+        }
+        return files;
+    }
+
+    static Stage stage() {
+        List<Path> outputs = new ArrayList<>();
+        for (Path source : sources()) {
+            outputs.add(variant(source, ".min.js"));
+            outputs.add(variant(source, ".min.js.gz"));
+        }
+        outputs.add(REPORT);
+        return new Stage("MinifiedArtifacts", sources(), outputs, () -> main(new String[0]));
+    }
+
+    // data/items_equipment.js -> build/minified/items_equipment.min.js
+    private static Path variant(Path source, String suffix) {
+        String name = source.getFileName().toString();
+        return OUT_DIR.resolve(name.substring(0, name.length() - ".js".length()) + suffix);
+    }
+
+    private static byte[] gzip(byte[] data) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(data.length / 4);
+        try (OutputStream out = new GZIPOutputStream(bytes) {
+            {
+                def.setLevel(Deflater.BEST_COMPRESSION);
+            }
+        }) {
+            out.write(data);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static String line(String name, long bytes, long min, long gz) {
+        return String.format(Locale.ROOT, "%s\t%d\t%d\t%d\t%.1f\n", name, bytes, min, gz, percent(gz, bytes));
+    }
+
+    private static double percent(long part, long whole) {
+        return whole == 0 ? 0 : 100.0 * part / whole;
+    }
+}
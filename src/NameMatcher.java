@@ -0,0 +1,102 @@
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Aho-Corasick automaton over a fixed set of substrings: {@link #matchesAny} tells whether a text contains
+ * any of them in one pass over the text, however many patterns there are. Matching is case-sensitive,
+ * like {@link String#contains}.
+ */
+final class NameMatcher {
+
+    // Per state: the chars with a trie edge (sorted) and the states they lead to
+    private final char[][] labels;
+    private final int[][] targets;
+    // Longest proper suffix of the state's path that is also a path in the trie
+    private final int[] fail;
+    // A pattern ends here, or at a state on the failure chain
+    private final boolean[] accepting;
+
+    private NameMatcher(Collection<String> patterns) {
+        List<TreeMap<Character, Integer>> trie = new ArrayList<>();
+        List<Boolean> ends = new ArrayList<>();
+        trie.add(new TreeMap<>());
+        ends.add(false);
+        for (String p : patterns) {
+            int s = 0;
+            for (int i = 0; i < p.length(); i++) {
+                Integer t = trie.get(s).get(p.charAt(i));
+                if (t == null) {
+                    t = trie.size();
+                    trie.add(new TreeMap<>());
+                    ends.add(false);
+                    trie.get(s).put(p.charAt(i), t);
+                }
+                s = t;
+            }
+            ends.set(s, true); // "" ends at the root, as "".contains("") holds for every text
+        }
+
+        int states = trie.size();
+        labels = new char[states][];
+        targets = new int[states][];
+        accepting = new boolean[states];
+        for (int s = 0; s < states; s++) {
+            TreeMap<Character, Integer> edges = trie.get(s);
+            labels[s] = new char[edges.size()];
+            targets[s] = new int[edges.size()];
+            int k = 0;
+            for (Map.Entry<Character, Integer> e : edges.entrySet()) {
+                labels[s][k] = e.getKey();
+                targets[s][k++] = e.getValue();
+            }
+            accepting[s] = ends.get(s);
+        }
+        fail = new int[states];
+        link();
+    }
+
+    static NameMatcher of(Collection<String> patterns) {
+        return new NameMatcher(patterns);
+    }
+
+    boolean matchesAny(CharSequence text) {
+        if (accepting[0]) return true;
+        int s = 0;
+        for (int i = 0; i < text.length(); i++) {
+            s = step(s, text.charAt(i));
+            if (accepting[s]) return true;
+        }
+        return false;
+    }
+
+    private int step(int s, char c) {
+        while (true) {
+            int k = Arrays.binarySearch(labels[s], c);
+            if (k >= 0) return targets[s][k];
+            if (s == 0) return 0;
+            s = fail[s];
+        }
+    }
+
+    // Breadth-first, so the failure state of every shallower state is known
+    private void link() {
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        for (int t : targets[0]) {
+            queue.add(t);
+        }
+        while (!queue.isEmpty()) {
+            int s = queue.poll();
+            for (int k = 0; k < labels[s].length; k++) {
+                int t = targets[s][k];
+                fail[t] = step(fail[s], labels[s][k]);
+                accepting[t] |= accepting[fail[t]];
+                queue.add(t);
+            }
+        }
+    }
+}
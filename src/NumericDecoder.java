@@ -0,0 +1,102 @@
+/**
+ * Classifies and parses numeric table cells in a single scan, without exceptions.
+ * <p>
+ * Accepted forms (no surrounding whitespace):
+ * - INT: optional sign and ASCII digits that fit in an int, e.g. "12", "-3", "+7".
+ * - DECIMAL: optional sign, digits with one '.', at least one digit, e.g. "0.5", "-1.25", ".5", "3.".
+ * Everything else, including int overflow, is TEXT; "" (or null) is EMPTY.
+ */
+public final class NumericDecoder {
+
+    public enum Kind {
+        EMPTY, INT, DECIMAL, TEXT
+    }
+
+    // Powers of ten that are exact doubles; mantissa / POW10[n] is then correctly rounded
+    private static final double[] POW10 = new double[23];
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+
+    static {
+        POW10[0] = 1;
+        for (int i = 1; i < POW10.length; i++) POW10[i] = POW10[i - 1] * 10;
+    }
+
+    private NumericDecoder() {
+    }
+
+    public static Kind classify(CharSequence s) {
+        if (s == null) return Kind.EMPTY;
+        int n = s.length();
+        if (n == 0) return Kind.EMPTY;
+
+        int i = 0;
+        char first = s.charAt(0);
+        boolean negative = first == '-';
+        if (negative || first == '+') i++;
+
+        long value = 0;
+        int digits = 0;
+        boolean dot = false;
+        for (; i < n; i++) {
+            char ch = s.charAt(i);
+            if (ch >= '0' && ch <= '9') {
+                digits++;
+                if (!dot && value <= Integer.MAX_VALUE + 1L) value = value * 10 + (ch - '0');
+            } else if (ch == '.' && !dot) {
+                dot = true;
+            } else {
+                return Kind.TEXT;
+            }
+        }
+        if (digits == 0) return Kind.TEXT;
+        if (dot) return Kind.DECIMAL;
+        return value <= (negative ? Integer.MAX_VALUE + 1L : Integer.MAX_VALUE) ? Kind.INT : Kind.TEXT;
+    }
+
+    /**
+     * The cell as an int, or {@code missing} unless it is {@link Kind#INT}.
+     */
+    public static int parseInt(CharSequence s, int missing) {
+        if (classify(s) != Kind.INT) return missing;
+        int i = 0;
+        char first = s.charAt(0);
+        boolean negative = first == '-';
+        if (negative || first == '+') i++;
+        long value = 0;
+        for (; i < s.length(); i++) value = value * 10 + (s.charAt(i) - '0');
+        return (int) (negative ? -value : value);
+    }
+
+    /**
+     * The cell as a double, or {@code missing} unless it is {@link Kind#INT} or {@link Kind#DECIMAL}.
+     * Results are identical to {@link Double#parseDouble(String)}.
+     */
+    public static double parseDouble(CharSequence s, double missing) {
+        Kind kind = classify(s);
+        if (kind != Kind.INT && kind != Kind.DECIMAL) return missing;
+
+        int i = 0;
+        char first = s.charAt(0);
+        boolean negative = first == '-';
+        if (negative || first == '+') i++;
+        long mantissa = 0;
+        int scale = 0;
+        boolean dot = false;
+        for (; i < s.length(); i++) {
+            char ch = s.charAt(i);
+            if (ch == '.') {
+                dot = true;
+                continue;
+            }
+            mantissa = mantissa * 10 + (ch - '0');
+            if (dot) scale++;
+            if (mantissa > MAX_EXACT_MANTISSA) {
+                // Too many digits for the exact fast path
+                return Double.parseDouble(s.toString());
+            }
+        }
+        if (scale >= POW10.length) return Double.parseDouble(s.toString());
+        double value = mantissa / POW10[scale];
+        return negative ? -value : value;
+    }
+}
@@ -0,0 +1,189 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Single place the updaters write generated files through.
+ * <p>
+ * New content goes to a temp file next to the target and is hashed while it is written. If the
+ * existing file has the same length and hash, the temp file is dropped and the target is left alone
+ * (same bytes, same mtime, no cache invalidation). Otherwise the temp file replaces the target with an
+ * atomic move, so a reader never sees a half-written file.
+ * <p>
+ * Counts of written and unchanged files are collected across threads; {@link #report()} prints them.
+ */
+public final class OutputSink {
+
+    private static final AtomicInteger written = new AtomicInteger();
+    private static final AtomicInteger unchanged = new AtomicInteger();
+    private static final AtomicLong bytesSaved = new AtomicLong();
+
+    private OutputSink() {
+    }
+
+    /**
+     * Writes {@code content} as UTF-8.
+     *
+     * @return true if the file changed
+     */
+    public static boolean write(Path target, String content) throws IOException {
+        return write(target, content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return true if the file changed
+     */
+    public static boolean write(Path target, byte[] content) throws IOException {
+        try (Output out = open(target)) {
+            out.stream().write(content);
+            out.commit();
+            return out.changed();
+        }
+    }
+
+    /**
+     * Opens a streaming output. Write through {@link Output#writer()} or {@link Output#stream()}, then call
+     * {@link Output#commit()}; closing without committing discards the new content.
+     */
+    public static Output open(Path target) throws IOException {
+        return new Output(target);
+    }
+
+    /**
+     * Returns the totals since the last report, e.g. {@code "Outputs: 2 written, 9 unchanged (1843201 bytes not rewritten)"},
+     * and resets them.
+     */
+    public static String report() {
+        return "Outputs: " + written.getAndSet(0) + " written, " + unchanged.getAndSet(0) + " unchanged ("
+                + bytesSaved.getAndSet(0) + " bytes not rewritten)";
+    }
+
+    public static final class Output implements Closeable {
+        private final Path target;
+        private final Path tmp;
+        private final MessageDigest digest = ContentHash.newDigest();
+        private final CountingStream counter;
+        private final OutputStream stream;
+        private Writer writer;
+        private boolean committed;
+        private boolean changed;
+        private String hash;
+
+        private Output(Path target) throws IOException {
+            this.target = target.toAbsolutePath();
+            Files.createDirectories(this.target.getParent());
+            // Not Files.createTempFile: its owner-only permissions would end up on the published file
+            Path t;
+            OutputStream os;
+            while (true) {
+                t = this.target.resolveSibling(this.target.getFileName() + "." + Long.toHexString(ThreadLocalRandom.current().nextLong()) + ".tmp");
+                try {
+                    os = Files.newOutputStream(t, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+                    break;
+                } catch (FileAlreadyExistsException e) {
+                    // try another name
+                }
+            }
+            this.tmp = t;
+            this.counter = new CountingStream(new BufferedOutputStream(os, 64 * 1024));
+            this.stream = new DigestOutputStream(counter, digest);
+        }
+
+        public OutputStream stream() {
+            return stream;
+        }
+
+        /**
+         * UTF-8 writer over {@link #stream()}; buffered, flushed by {@link #commit()}.
+         */
+        public Writer writer() {
+            if (writer == null) {
+                writer = new BufferedWriter(new OutputStreamWriter(stream, StandardCharsets.UTF_8));
+            }
+            return writer;
+        }
+
+        /**
+         * Finishes the file: replaces the target if the content differs, otherwise keeps the old file.
+         */
+        public void commit() throws IOException {
+            if (committed) return;
+            if (writer != null) writer.flush();
+            stream.close();
+            committed = true;
+
+            long size = counter.count;
+            hash = ContentHash.hex(digest.digest());
+            if (Files.isRegularFile(target) && Files.size(target) == size && ContentHash.of(target).equals(hash)) {
+                Files.delete(tmp);
+                unchanged.incrementAndGet();
+                bytesSaved.addAndGet(size);
+                return;
+            }
+            try {
+                Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+            changed = true;
+            written.incrementAndGet();
+        }
+
+        /**
+         * SHA-256 of the content; available after {@link #commit()}.
+         */
+        public String hash() {
+            return hash;
+        }
+
+        /**
+         * Number of bytes written so far.
+         */
+        public long size() {
+            return counter.count;
+        }
+
+        /**
+         * True once committed if the target was replaced.
+         */
+        public boolean changed() {
+            return changed;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (committed) return;
+            try {
+                stream.close();
+            } finally {
+                committed = true;
+                Files.deleteIfExists(tmp);
+            }
+        }
+    }
+
+    private static final class CountingStream extends FilterOutputStream {
+        long count;
+
+        CountingStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+}
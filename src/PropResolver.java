@@ -0,0 +1,47 @@
+/**
+ * Turns one Txt property (prop, par, min, max) into planner stats, see {@link PropResolvers}.
+ */
+@FunctionalInterface
+interface PropResolver {
+
+    /**
+     * Adds the stats of {@code p} to {@code row}.
+     */
+    void resolve(Prop p, StatVector row);
+
+    /**
+     * One property of an item row, with its values already parsed.
+     */
+    final class Prop {
+        final String name;
+        final String propKey;
+        final String parameter;
+        final String minValStr;
+        final String maxValStr;
+        final String itemGroupType;
+        final Object val;
+        final Object minval;
+
+        Prop(String name, String propKey, String parameter, String minValStr, String maxValStr, String itemGroupType,
+             Object val, Object minval) {
+            this.name = name;
+            this.propKey = propKey;
+            this.parameter = parameter;
+            this.minValStr = minValStr;
+            this.maxValStr = maxValStr;
+            this.itemGroupType = itemGroupType;
+            this.val = val;
+            this.minval = minval;
+        }
+
+        Prop withVal(Object newVal) {
+            return new Prop(name, propKey, parameter, minValStr, maxValStr, itemGroupType, newVal, minval);
+        }
+
+        // The message the resolver prints for a property it cannot map
+        void reportUnresolved() {
+            System.err.println("name: " + name + " propKey: " + propKey + " parameter: " +
+                    parameter + " minValStr: " + minValStr + " maxValStr: " + maxValStr);
+        }
+    }
+}
@@ -0,0 +1,292 @@
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Dispatch table behind {@link UpdateUniqueItemsStats#resolveStat}.
+ * <p>
+ * Every Txt prop key is compiled once into a {@link PropResolver}, with the same precedence the
+ * if/else chain had:
+ * <ol>
+ *   <li>{@code runeword} (any case) expands the runeword's stats;</li>
+ *   <li>the special props (skilltab, skill/oskill, aura, equipped-skill, the proc skills, charged, the
+ *   combined damage/resist props, ...) have their own handler;</li>
+ *   <li>everything else maps to one planner key: the prop itself if it already is a planner key
+ *   ({@link #PLANNER_KEYS}, the values of {@link itemmap#PROP_MAP}), starts with {@code skills_} or is
+ *   {@code only}; otherwise its {@code PROP_MAP} entry (exact, then lower-case).</li>
+ * </ol>
+ * The planner-key checks (unknown, invalid characters, per-level scaling) are also decided at compile
+ * time, so resolving a prop is a hash lookup plus the handler's own work.
+ */
+final class PropResolvers {
+
+    private static final Set<String> PLANNER_KEYS = new HashSet<>(itemmap.PROP_MAP.values());
+    private static final Set<String> PER_LEVEL_STATS = new HashSet<>(itemmap.PER_LEVEL_STATS);
+    private static final Set<String> NEGATIVE_ON_PURPOSE = new HashSet<>(Arrays.asList(
+            "enemy_fRes", "enemy_cRes", "enemy_lRes", "enemy_pRes", "enemy_phyRes"));
+
+    // skilltab parameter -> planner key
+    private static final Map<String, String> SKILL_TABS = new HashMap<>();
+    // dmg-pois parameter (frames) -> {divisor, seconds}
+    private static final Map<Object, double[]> POISON_RATES = new HashMap<>();
+
+    static {
+        String[] tabs = {"skills_bows", "skills_passives", "skills_javelins", "skills_fire", "skills_lightning",
+                "skills_cold", "skills_curses", "skills_poisonBone", "skills_summoning_necromancer",
+                "skills_combat_paladin", "skills_offensive", "skills_defensive", "skills_combat_barbarian",
+                "skills_masteries", "skills_warcries", "skills_summoning_druid", "skills_shapeshifting",
+                "skills_elemental", "skills_traps", "skills_shadow", "skills_martial"};
+        for (int i = 0; i < tabs.length; i++) {
+            SKILL_TABS.put(String.valueOf(i), tabs[i]);
+        }
+        POISON_RATES.put(75, new double[]{3.3, 3});
+        POISON_RATES.put(50, new double[]{5.1, 2});
+        POISON_RATES.put(100, new double[]{2.5, 4});
+        POISON_RATES.put(125, new double[]{2, 5});
+        POISON_RATES.put(25, new double[]{10.24, 1});
+    }
+
+    private static final PropResolver UNKNOWN = (p, row) -> {
+        if (p.propKey != null & !p.propKey.isEmpty()) {
+            if (!p.propKey.startsWith("map-"))
+                System.err.println("Unknown prop: " + p.propKey);
+        }
+    };
+
+    private static final Map<String, PropResolver> SPECIAL = specials();
+    private static final Map<String, PropResolver> BY_PROP = new ConcurrentHashMap<>();
+    private static final Map<String, PropResolver> BY_PLANNER_KEY = new ConcurrentHashMap<>();
+
+    private PropResolvers() {
+    }
+
+    static PropResolver forProp(String propKey) {
+        return BY_PROP.computeIfAbsent(propKey, PropResolvers::compile);
+    }
+
+    private static PropResolver compile(String propKey) {
+        if (propKey.toLowerCase().equals("runeword")) return PropResolvers::runeword;
+        PropResolver special = SPECIAL.get(propKey);
+        if (special != null) return special;
+
+        if (PLANNER_KEYS.contains(propKey) || propKey.startsWith("skills_")) return plannerKey(propKey);
+        if (propKey.equals("only")) {
+            PropResolver only = plannerKey(propKey);
+            return (p, row) -> {
+                if (p.val instanceof String) {
+                    if (p.val.equals("")) return;
+                    p = p.withVal(((String) p.val).toLowerCase());
+                }
+                only.resolve(p, row);
+            };
+        }
+        String mapped = itemmap.PROP_MAP.get(propKey);
+        if (mapped == null) {
+            mapped = itemmap.PROP_MAP.get(propKey.toLowerCase());
+        }
+        return plannerKey(mapped);
+    }
+
+    // Stores the value under one planner key
+    private static PropResolver plannerKey(String key) {
+        // Skip unknown properties instead of inserting a null key
+        if (key == null || key.isBlank()) return UNKNOWN;
+        return BY_PLANNER_KEY.computeIfAbsent(key, PropResolvers::compilePlannerKey);
+    }
+
+    private static PropResolver compilePlannerKey(String key) {
+        if (key.contains("%") || key.contains("-") || key.contains("/")) {
+            return (p, row) -> {
+            };
+        }
+        boolean negative = NEGATIVE_ON_PURPOSE.contains(key);
+        // add stat for uld
+        boolean perEnergy = key.equals("mindmg_energy");
+        boolean perLevel = PER_LEVEL_STATS.contains(key);
+        boolean maybePerLevel = !perLevel && key.endsWith("_per_level");
+        int id = StatDictionary.id(key);
+        return (p, row) -> {
+            Object val = p.val;
+            if (negative && val instanceof Integer && ((Integer) val) > 0) {
+                val = Math.abs((Integer) val);
+            }
+            if (perEnergy) {
+                row.put("mindmg_per_energy", 1);
+            }
+            if (perLevel || maybePerLevel) {
+                if (maybePerLevel) {
+                    System.err.println("name: " + p.name + " possible per level prop key propKey: " + p.propKey);
+                }
+                row.put(id, (Double.parseDouble(val.toString()) * 0.125));
+                return;
+            }
+            row.put(id, val);
+        };
+    }
+
+    private static void runeword(PropResolver.Prop p, StatVector row) {
+        StatVector rwStats = RunesTxtToJson.getRuneword(p.parameter, p.itemGroupType);
+        if (rwStats == null) {
+            System.err.println("Missing rw: " + p.parameter);
+            return;
+        }
+        row.putAll(rwStats);
+    }
+
+    private static Map<String, PropResolver> specials() {
+        Map<String, PropResolver> m = new HashMap<>();
+
+        m.put("skilltab", (p, row) -> {
+            String key = SKILL_TABS.get(p.parameter.trim());
+            if (key == null) {
+                p.reportUnresolved();
+                return;
+            }
+            plannerKey(key).resolve(p, row);
+        });
+
+        PropResolver skill = (p, row) -> {
+            String skillname = UpdateUniqueItemsStats.getSkillName(p.parameter);
+            if (skillname == null) {
+                p.reportUnresolved();
+                return;
+            }
+            plannerKey(p.propKey + "_" + (skillname.replace(" ", "_"))).resolve(p, row);
+        };
+        m.put("skill", skill);
+        m.put("oskill", skill);
+
+        m.put("aura", (p, row) -> {
+            String skillname = UpdateUniqueItemsStats.getSkillName(p.parameter);
+            if (skillname == null) {
+                p.reportUnresolved();
+                return;
+            }
+            row.put("aura", skillname);
+            row.put("aura_lvl", p.val);
+        });
+
+        m.put("equipped-skill", (p, row) -> {
+            row.put("equipped_skill", p.parameter.replace("SelfAura", "").trim());
+            row.put("equipped_skill_level", p.val);
+        });
+
+        m.put("skill-rand", (p, row) -> {
+            //250 for druid
+            if (p.val.equals(250)) {
+                row.put("random_skill", "[Random Druid Skill] (Druid Only)");
+                row.put("random_skill_level", UpdateUniqueItemsStats.parseNumericOrString(p.parameter));
+                return;
+            }
+            p.reportUnresolved();
+        });
+
+        /*
+        cast-skill	Twister	15	28
+        cast_skill:{index:["cast_chance","cast_level","cast_skill"], format:["","% Chance to Cast Level "," "," on Casting"]},
+        strike_skill:{index:["strike_chance","strike_level","strike_skill"], format:["","% Chance to Cast Level "," "," on Striking"]},
+        hit_skill:{index:["hit_chance","hit_level","hit_skill"], format:["","% Chance to Cast Level "," "," on Hit"]},
+         */
+        String[][] procs = {{"death-skill", "ondeath"}, {"gethit-skill", "gethit"}, {"cast-skill", "cast"},
+                {"kill-skill", "onkill"}, {"levelup-skill", "onlevel"}, {"block-skill", "onblock"}, {"hit-skill", "strike"}};
+        for (String[] proc : procs) {
+            m.put(proc[0], skillProc(proc[1], "_chance"));
+        }
+        // skill charged
+        m.put("charged", skillProc("charges", "_charges"));
+
+        // flat dmg
+        m.put("dmg-norm", (p, row) -> {
+            row.put("damage_min", p.val);
+            row.put("damage_max", p.val);
+        });
+        m.put("dmg-mag", (p, row) -> {
+            row.put("mDamage_min", p.val);
+            row.put("mDamage_max", p.val);
+        });
+        m.put("dmg-elem", (p, row) -> {
+            row.put("fDamage_min", p.minval);
+            row.put("fDamage_max", p.val);
+            row.put("cDamage_min", p.minval);
+            row.put("cDamage_max", p.val);
+            row.put("lDamage_min", p.minval);
+            row.put("lDamage_max", p.val);
+        });
+        m.put("res-all-max", (p, row) -> {
+            row.put("fRes_max", p.val);
+            row.put("lRes_max", p.val);
+            row.put("cRes_max", p.val);
+            row.put("pRes_max", p.val);
+        });
+
+        /*
+        Hit Causes Monster to Flee +
+        16-> 12
+        10->7
+        100->100
+        64->50
+        14-> 10
+
+        howl	10	5 -> 10% level 5
+         */
+        m.put("howl", (p, row) -> {
+            if (p.minval.equals(p.val)) {
+                final double newRate;
+                if (p.val.equals(100)) {
+                    newRate = 100;
+                } else {
+                    newRate = Math.floor(((Integer) p.val) * 0.75);
+                }
+                row.put("flee_on_hit", newRate);
+                return;
+            }
+            String skillname = UpdateUniqueItemsStats.getSkillName(p.propKey);
+            if (skillname == null) {
+                p.reportUnresolved();
+                return;
+            }
+            row.put("hit_skill", skillname);
+            row.put("hit_chance", p.minval);
+            row.put("hit_level", p.val);
+        });
+
+        m.put("dmg-pois", (p, row) -> {
+            double[] rate = POISON_RATES.get(UpdateUniqueItemsStats.parseNumericOrString(p.parameter));
+            if (rate == null) {
+                System.err.println("name: " + p.name + " add psn calc for propKey: " + p.propKey + " parameter: " +
+                        p.parameter + " minValStr: " + p.minValStr + " maxValStr: " + p.maxValStr);
+                return;
+            }
+            final double newPsn = Math.floor(((Integer) p.val) / rate[0]);
+            row.put("dmg_pois", newPsn);
+            row.put("dmg_pois_time", (int) rate[1]);
+        });
+
+        m.put("silence-fhr-ias", (p, row) -> {
+            row.put("fhr", p.val);
+            row.put("ias", p.val);
+        });
+        m.put("plague-fcr-pierce", (p, row) -> {
+            row.put("fcr", p.val);
+            row.put("enemy_pRes", Math.abs((Integer) p.val));
+        });
+        m.put("str-and-vit", (p, row) -> {
+            row.put("strength", p.val);
+            row.put("vitality", p.val);
+        });
+        return m;
+    }
+
+    // "<type>_skill", "<type><countSuffix>" (from min), "<type>_level" (from max)
+    private static PropResolver skillProc(String type, String countSuffix) {
+        return (p, row) -> {
+            String skillname = UpdateUniqueItemsStats.getSkillName(p.parameter);
+            if (skillname == null) {
+                p.reportUnresolved();
+                return;
+            }
+            row.put(type + "_skill", skillname);
+            row.put(type + countSuffix, p.minval);
+            row.put(type + "_level", p.val);
+        };
+    }
+}
@@ -1,8 +1,7 @@
-import java.io.BufferedReader;
-import java.io.FileReader;
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Converts data/Runes.txt (tab-separated) into a JSON array and writes it to out/Runes.json.
@@ -13,11 +12,62 @@ import java.util.*;
  */
 public class RunesTxtToJson {
 
-    private static Map<String, Map<String, Object>> runeWordsParsed = null;
-    private static Map<String, List<Map<String, Object>>> runeWordsItemTypeBuckets = new LinkedHashMap<>();
+    // Parsed once, then only read; published together by getRunewordsParsed()
+    private static volatile Map<String, Map<String, Object>> runeWordsParsed = null;
+    private static volatile Map<String, List<Map<String, Object>>> runeWordsItemTypeBuckets = Collections.emptyMap();
 
-    private static Map<String, Map<String, Object>> runeStats = null;
+    private static volatile Map<String, Map<String, Object>> runeStats = null;
 
+    // Runeword variant + slot -> its stats with the runes' stats added, computed once per key
+    private static final Map<ResolvedKey, StatVector> resolvedRunewords = new ConcurrentHashMap<>();
+
+    // The rune stats a runeword gets from the item it is made in
+    private enum Slot {
+        WEAPON("rwstatsWeap"), ARMOR("rwstatsArmor"), SHIELD("rwstatsShield"), UNKNOWN(null), NONE(null);
+
+        final String runeStatsKey;
+
+        Slot(String runeStatsKey) {
+            this.runeStatsKey = runeStatsKey;
+        }
+
+        static Slot of(String itemGroupType) {
+            if (itemGroupType == null || itemGroupType.isEmpty()) return NONE;
+            if (WeaponGroupTypeUtil.isWeapon(itemGroupType.toLowerCase())) return WEAPON;
+            if (itemGroupType.equalsIgnoreCase("armor") || itemGroupType.equalsIgnoreCase("Helm")) return ARMOR;
+            if (itemGroupType.equalsIgnoreCase("shield")) return SHIELD;
+            return UNKNOWN;
+        }
+    }
+
+    // A parsed runeword variant (compared by identity) and a slot
+    private static final class ResolvedKey {
+        final Map<String, Object> variant;
+        final Slot slot;
+
+        ResolvedKey(Map<String, Object> variant, Slot slot) {
+            this.variant = variant;
+            this.slot = slot;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof ResolvedKey && ((ResolvedKey) o).variant == variant && ((ResolvedKey) o).slot == slot;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(variant) * 31 + slot.ordinal();
+        }
+    }
+
+    // Drops the parsed tables so the next call re-reads Runes.txt and Gems.txt (watch mode re-runs in one JVM)
+    static synchronized void reset() {
+        runeWordsParsed = null;
+        runeWordsItemTypeBuckets = Collections.emptyMap();
+        runeStats = null;
+        resolvedRunewords.clear();
+    }
 
     public static void main(String[] args) throws IOException {
 
@@ -42,12 +92,9 @@ public class RunesTxtToJson {
             Map<String, Object> rune = stats.get(runeName);
             sb.append(runeName).append("\n");
 
-            @SuppressWarnings("unchecked")
-            Map<String, Object> weap = (Map<String, Object>) rune.get("rwstatsWeap");
-            @SuppressWarnings("unchecked")
-            Map<String, Object> armor = (Map<String, Object>) rune.get("rwstatsArmor");
-            @SuppressWarnings("unchecked")
-            Map<String, Object> shield = (Map<String, Object>) rune.get("rwstatsShield");
+            StatVector weap = (StatVector) rune.get("rwstatsWeap");
+            StatVector armor = (StatVector) rune.get("rwstatsArmor");
+            StatVector shield = (StatVector) rune.get("rwstatsShield");
 
             // Weapon
             sb.append("  Weapon:\n");
@@ -67,11 +114,12 @@ public class RunesTxtToJson {
     }
 
     // Helper to print one stats map in a consistent, readable way
-    private static void appendStatBlock(StringBuilder sb, Map<String, Object> stats) {
-        if (stats == null || stats.isEmpty()) {
+    private static void appendStatBlock(StringBuilder sb, StatVector vector) {
+        if (vector == null || vector.isEmpty()) {
             sb.append("    (none)\n");
             return;
         }
+        Map<String, Object> stats = vector.toMap();
         // Stable key order
         List<String> keys = new ArrayList<>(stats.keySet());
         keys.sort(String.CASE_INSENSITIVE_ORDER);
@@ -103,13 +151,11 @@ public class RunesTxtToJson {
     }
 
     public static Map<String, List<String>> buildRunewordsMapLikeItemMetadata() {
-        if (runeWordsParsed == null) { // ensure loaded
-            getRunewordsParsed();
-        }
+        Map<String, Map<String, Object>> parsed = getRunewordsParsed(); // ensure loaded
         Map<String, List<String>> out = new LinkedHashMap<>();
 
         // Single-bucket runewords
-        for (Map.Entry<String, Map<String, Object>> e : runeWordsParsed.entrySet()) {
+        for (Map.Entry<String, Map<String, Object>> e : parsed.entrySet()) {
             String name = e.getKey();
             @SuppressWarnings("unchecked")
             List<String> runes = (List<String>) e.getValue().get("runes");
@@ -174,130 +220,132 @@ public class RunesTxtToJson {
 
         String outDir = System.getProperty("user.dir") + "\\data\\";
         java.nio.file.Path path = java.nio.file.Paths.get(outDir, "item_runewords.js");
-        java.nio.file.Files.write(path, sb.toString().getBytes(java.nio.charset.StandardCharsets.UTF_8),
-                java.nio.file.StandardOpenOption.CREATE, java.nio.file.StandardOpenOption.TRUNCATE_EXISTING);
-        System.out.println("Wrote Runewords to: " + path.toAbsolutePath());
+        boolean changed = OutputSink.write(path, sb.toString());
+        System.out.println((changed ? "Wrote Runewords to: " : "Runewords unchanged: ") + path.toAbsolutePath());
     }
 
     private static Map<String, Map<String, Object>> runeStats() {
-        if (runeStats != null)
-            return runeStats; //lazy load
+        Map<String, Map<String, Object>> loaded = runeStats;
+        if (loaded != null)
+            return loaded; //lazy load
+        synchronized (RunesTxtToJson.class) {
+            if (runeStats == null)
+                runeStats = loadRuneStats();
+            return runeStats;
+        }
+    }
 
-        List<Map<String, String>> rows = null;
+    private static Map<String, Map<String, Object>> loadRuneStats() {
+        TsvTable gems;
         try {
-            rows = parseTsv(UpdateUniqueItemsStats.GEM_RUNE);
+            gems = TsvTable.read(Path.of(UpdateUniqueItemsStats.GEM_RUNE));
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
-        runeStats = new HashMap<>();
-        for (Map<String, String> row : rows) {
-            if (row.get("letter") != null && !row.get("letter").isEmpty()) {
-                String keyName = row.get("letter");
+        TsvTable.StringColumn letter = gems.column("letter");
+        Map<String, Map<String, Object>> runeStats = new HashMap<>();
+        for (int row = 0; row < gems.rowCount(); row++) {
+            if (!letter.isEmpty(row)) {
+                String keyName = letter.get(row);
                 Map<String, Object> rune = new LinkedHashMap<>();
                 rune.put("name", keyName);
-                {
-                    Map<String, Object> rowStats = new LinkedHashMap<>();
-                    for (int i = 1; i <= 3; i++) {
-                        String type = "weapon";
-                        Map<String, Object> resolvedStats = UpdateUniqueItemsStats.resolveStat(keyName, row.get(type + "Mod" + i + "Code"),
-                                row.get(type + "Mod" + i + "Max"), row.get(type + "Mod" + i + "Param"), row.get(type + "Mod" + i + "Min"), null);
-                        rowStats = UpdateUniqueItemsStats.combineRows(rowStats, resolvedStats);
-                    }
-                    rune.put("rwstatsWeap", rowStats);
-                }
-                {
-                    Map<String, Object> rowStats = new LinkedHashMap<>();
-                    for (int i = 1; i <= 3; i++) {
-                        String type = "helm";
-                        Map<String, Object> resolvedStats = UpdateUniqueItemsStats.resolveStat(keyName, row.get(type + "Mod" + i + "Code"),
-                                row.get(type + "Mod" + i + "Max"), row.get(type + "Mod" + i + "Param"), row.get(type + "Mod" + i + "Min"), null);
-                        rowStats = UpdateUniqueItemsStats.combineRows(rowStats, resolvedStats);
-                    }
-                    rune.put("rwstatsArmor", rowStats);
-                }
-                {
-                    Map<String, Object> rowStats = new LinkedHashMap<>();
-                    for (int i = 1; i <= 3; i++) {
-                        String type = "shield";
-                        Map<String, Object> resolvedStats = UpdateUniqueItemsStats.resolveStat(keyName, row.get(type + "Mod" + i + "Code"),
-                                row.get(type + "Mod" + i + "Max"), row.get(type + "Mod" + i + "Param"), row.get(type + "Mod" + i + "Min"), null);
-                        rowStats = UpdateUniqueItemsStats.combineRows(rowStats, resolvedStats);
-                    }
-                    rune.put("rwstatsShield", rowStats);
-                }
-                runeStats.put(keyName, rune);
+                rune.put("rwstatsWeap", gemModStats(gems, row, keyName, "weapon"));
+                rune.put("rwstatsArmor", gemModStats(gems, row, keyName, "helm"));
+                rune.put("rwstatsShield", gemModStats(gems, row, keyName, "shield"));
+                runeStats.put(keyName, Collections.unmodifiableMap(rune));
             }
         }
-        return runeStats;
+        return Collections.unmodifiableMap(runeStats);
     }
 
 
+    // Sums <type>Mod1..3 of one Gems.txt row
+    private static StatVector gemModStats(TsvTable gems, int row, String keyName, String type) {
+        StatVector rowStats = new StatVector();
+        StatVector resolvedStats = new StatVector();
+        for (int i = 1; i <= 3; i++) {
+            rowStats.merge(UpdateUniqueItemsStats.resolveStat(resolvedStats, keyName,
+                    gems.get(gems.columnIndex(type + "Mod" + i + "Code"), row),
+                    gems.get(gems.columnIndex(type + "Mod" + i + "Max"), row),
+                    gems.get(gems.columnIndex(type + "Mod" + i + "Param"), row),
+                    gems.get(gems.columnIndex(type + "Mod" + i + "Min"), row), null));
+        }
+        return rowStats.immutable();
+    }
+
     public static Map<String, Map<String, Object>> getRunewordsParsed() {
-        if (runeWordsParsed != null)
+        Map<String, Map<String, Object>> loaded = runeWordsParsed;
+        if (loaded != null)
+            return loaded;
+        synchronized (RunesTxtToJson.class) {
+            if (runeWordsParsed == null)
+                loadRunewords();
             return runeWordsParsed;
-        List<Map<String, String>> rows = null;
+        }
+    }
+
+    // Parses Runes.txt into runeWordsParsed and runeWordsItemTypeBuckets (runewords with one variant per item type)
+    private static void loadRunewords() {
+        TsvTable runes;
         try {
-            rows = parseTsv(UpdateUniqueItemsStats.RUNE_WORDS);
+            runes = TsvTable.read(Path.of(UpdateUniqueItemsStats.RUNE_WORDS));
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
+        TsvTable.StringColumn complete = runes.column("complete");
+        TsvTable.StringColumn runeName = runes.column("Rune Name");
+        TsvTable.StringColumn[] runeCols = new TsvTable.StringColumn[8];
+        TsvTable.StringColumn[] itypeCols = new TsvTable.StringColumn[8];
+        for (int i = 1; i <= 7; i++) {
+            runeCols[i] = runes.column("Rune" + i);
+            itypeCols[i] = runes.column("itype" + i);
+        }
+        int[] codeIdx = new int[8];
+        int[] maxIdx = new int[8];
+        int[] paramIdx = new int[8];
+        int[] minIdx = new int[8];
+        for (int i = 1; i <= 7; i++) {
+            codeIdx[i] = runes.columnIndex("T1Code" + i);
+            maxIdx[i] = runes.columnIndex("T1Max" + i);
+            paramIdx[i] = runes.columnIndex("T1Param" + i);
+            minIdx[i] = runes.columnIndex("T1Min" + i);
+        }
         //     System.out.println(rows);
-        runeWordsParsed = new LinkedHashMap<>();
-        for (Map<String, String> row : rows) {
-            if (row.get("complete") != null && row.get("complete").equals("1")) {
-                String keyName = row.get("Rune Name");
+        Map<String, Map<String, Object>> runeWordsParsed = new LinkedHashMap<>();
+        Map<String, List<Map<String, Object>>> runeWordsItemTypeBuckets = new LinkedHashMap<>();
+        StatVector resolvedStats = new StatVector();
+        for (int row = 0; row < runes.rowCount(); row++) {
+            if (complete.get(row).equals("1")) {
+                String keyName = runeName.get(row);
                 keyName = keyName.trim();
                 if (runeWordRename.containsKey(keyName))
                     keyName = runeWordRename.get(keyName);
                 if (!keyName.isEmpty()) {
                     Map<String, Object> rune = new LinkedHashMap<>();
                     rune.put("name", keyName);
-                    rune.put("Rune1", runeIdToName.get(row.get("Rune1")));
-                    rune.put("Rune2", runeIdToName.get(row.get("Rune2")));
-                    rune.put("Rune3", runeIdToName.get(row.get("Rune3")));
-                    rune.put("Rune4", runeIdToName.get(row.get("Rune4")));
-                    rune.put("Rune5", runeIdToName.get(row.get("Rune5")));
-                    rune.put("Rune6", runeIdToName.get(row.get("Rune6")));
+                    for (int i = 1; i <= 6; i++) {
+                        rune.put("Rune" + i, runeIdToName.get(runeCols[i].get(row)));
+                    }
                     List<String> Rune = new ArrayList<>();
-                    if (row.get("Rune1") != null && !row.get("Rune1").isEmpty())
-                        Rune.add(runeIdToName.get(row.get("Rune1")));
-                    if (row.get("Rune2") != null && !row.get("Rune2").isEmpty())
-                        Rune.add(runeIdToName.get(row.get("Rune2")));
-                    if (row.get("Rune3") != null && !row.get("Rune3").isEmpty())
-                        Rune.add(runeIdToName.get(row.get("Rune3")));
-                    if (row.get("Rune4") != null && !row.get("Rune4").isEmpty())
-                        Rune.add(runeIdToName.get(row.get("Rune4")));
-                    if (row.get("Rune5") != null && !row.get("Rune5").isEmpty())
-                        Rune.add(runeIdToName.get(row.get("Rune5")));
-                    if (row.get("Rune6") != null && !row.get("Rune6").isEmpty())
-                        Rune.add(runeIdToName.get(row.get("Rune6")));
-                    if (row.get("Rune7") != null && !row.get("Rune7").isEmpty())
-                        Rune.add(runeIdToName.get(row.get("Rune7")));
-                    rune.put("runes", Rune);
+                    for (int i = 1; i <= 7; i++) {
+                        if (!runeCols[i].isEmpty(row))
+                            Rune.add(runeIdToName.get(runeCols[i].get(row)));
+                    }
+                    rune.put("runes", Collections.unmodifiableList(Rune));
                     List<String> itype = new ArrayList<>();
-                    if (row.get("itype1") != null && !row.get("itype1").isEmpty())
-                        itype.add(row.get("itype1"));
-                    if (row.get("itype2") != null && !row.get("itype2").isEmpty())
-                        itype.add(row.get("itype2"));
-                    if (row.get("itype3") != null && !row.get("itype3").isEmpty())
-                        itype.add(row.get("itype3"));
-                    if (row.get("itype4") != null && !row.get("itype4").isEmpty())
-                        itype.add(row.get("itype4"));
-                    if (row.get("itype5") != null && !row.get("itype5").isEmpty())
-                        itype.add(row.get("itype5"));
-                    if (row.get("itype6") != null && !row.get("itype6").isEmpty())
-                        itype.add(row.get("itype6"));
-                    if (row.get("itype7") != null && !row.get("itype7").isEmpty())
-                        itype.add(row.get("itype7"));
-
-                    rune.put("itype", itype);
-                    Map<String, Object> rowStats = new LinkedHashMap<>();
                     for (int i = 1; i <= 7; i++) {
-                        Map<String, Object> resolvedStats = UpdateUniqueItemsStats.resolveStat(keyName, row.get("T1Code" + i),
-                                row.get("T1Max" + i), row.get("T1Param" + i), row.get("T1Min" + i), null);
-                        rowStats = UpdateUniqueItemsStats.combineRows(rowStats, resolvedStats);
+                        if (!itypeCols[i].isEmpty(row))
+                            itype.add(itypeCols[i].get(row));
                     }
-                    rune.put("rwstats", rowStats);
+
+                    rune.put("itype", Collections.unmodifiableList(itype));
+                    StatVector rowStats = new StatVector();
+                    for (int i = 1; i <= 7; i++) {
+                        rowStats.merge(UpdateUniqueItemsStats.resolveStat(resolvedStats, keyName, runes.get(codeIdx[i], row),
+                                runes.get(maxIdx[i], row), runes.get(paramIdx[i], row), runes.get(minIdx[i], row), null));
+                    }
+                    rune.put("rwstats", rowStats.immutable());
+                    rune = Collections.unmodifiableMap(rune);
                     if (runeWordsParsed.containsKey(keyName)) {
                         List<Map<String, Object>> runeWordsItemTypeBucketsList = new ArrayList<>();
                         runeWordsItemTypeBucketsList.add(rune);
@@ -318,44 +366,49 @@ public class RunesTxtToJson {
             }
         }
 
-        return runeWordsParsed;
+        RunesTxtToJson.runeWordsItemTypeBuckets = Collections.unmodifiableMap(runeWordsItemTypeBuckets);
+        RunesTxtToJson.runeWordsParsed = Collections.unmodifiableMap(runeWordsParsed);
     }
 
-    @SuppressWarnings("unchecked")
-    public static Map<String, Object> getRuneword(String keyName, String itemGroupType) {
-        final Map<String, Object> runeWordStats = getRunewordOnlyStats(keyName, itemGroupType);
-        if (runeWordStats == null)
+    /**
+     * The stats of runeword {@code keyName} made in an item of {@code itemGroupType}: its own stats plus the
+     * weapon, armor or shield stats of its runes (none without an item type). Null if there is no such runeword.
+     * <p>
+     * Each (runeword variant, slot) is resolved once; the result is read-only and shared.
+     */
+    public static StatVector getRuneword(String keyName, String itemGroupType) {
+        final Map<String, Object> variant = getRunewordOnlyStats(keyName, itemGroupType);
+        if (variant == null)
             return null;
+        Slot slot = Slot.of(itemGroupType);
+        return resolvedRunewords.computeIfAbsent(new ResolvedKey(variant, slot), k -> resolve(variant, slot));
+    }
 
-        if (itemGroupType != null && itemGroupType.length() > 0) {
-            List<String> runes = (List<String>) runeWordStats.get("runes");
-            Map<String, Object> runesStats = new HashMap<>();
-            for (String rune : runes) {
-                if (rune == null || rune.isEmpty()) continue;
-                Map<String, Object> resolvedStats = new HashMap<>();
-                if (WeaponGroupTypeUtil.isWeapon(itemGroupType.toLowerCase())) {
-                    resolvedStats = (Map<String, Object>) runeStats().get(rune).get("rwstatsWeap");
-                } else if (itemGroupType.equalsIgnoreCase("armor") || itemGroupType.equalsIgnoreCase("Helm")) {
-                    resolvedStats = (Map<String, Object>) runeStats().get(rune).get("rwstatsArmor");
-                } else if (itemGroupType.equalsIgnoreCase("shield")) {
-                    resolvedStats = (Map<String, Object>) runeStats().get(rune).get("rwstatsShield");
-                } else {
-                    System.err.println("Unkown Type: " + itemGroupType);
-                }
-                runesStats = UpdateUniqueItemsStats.combineRows(runesStats, resolvedStats);
+    @SuppressWarnings("unchecked")
+    private static StatVector resolve(Map<String, Object> variant, Slot slot) {
+        StatVector rwStats = (StatVector) variant.get("rwstats");
+        if (slot == Slot.NONE)
+            return rwStats;
+
+        StatVector runesStats = new StatVector();
+        for (String rune : (List<String>) variant.get("runes")) {
+            if (rune == null || rune.isEmpty()) continue;
+            if (slot == Slot.UNKNOWN) {
+                System.err.println("Unkown Type for " + variant.get("name"));
+                continue;
             }
-            runesStats = UpdateUniqueItemsStats.combineRows((Map<String, Object>) runeWordStats.get("rwstats"), runesStats);
-            runeWordStats.put("rwstats", runesStats);
+            runesStats.merge((StatVector) runeStats().get(rune).get(slot.runeStatsKey));
         }
-        return runeWordStats;
+        StatVector stats = rwStats.copy();
+        stats.merge(runesStats);
+        return stats.immutable();
     }
 
     @SuppressWarnings("unchecked")
     private static Map<String, Object> getRunewordOnlyStats(String keyName, String itemGroupType) {
-        if (runeWordsParsed == null) // lazy load
-            getRunewordsParsed();
-        if (runeWordsParsed.containsKey(keyName))
-            return getRunewordsParsed().get(keyName);
+        Map<String, Object> single = getRunewordsParsed().get(keyName); // lazy load
+        if (single != null)
+            return single;
         if (runeWordsItemTypeBuckets.containsKey(keyName)) {
             String weaponGroupType = WeaponGroupTypeUtil.groupOf(itemGroupType);
             if (weaponGroupType == null) {
@@ -477,43 +530,6 @@ public class RunesTxtToJson {
         put("r33", "Zod");
     }};
 
-    private static List<Map<String, String>> parseTsv(String path) throws IOException {
-        List<Map<String, String>> result = new ArrayList<>();
-
-        try (BufferedReader br = new BufferedReader(new FileReader(path, StandardCharsets.UTF_8))) {
-            String line;
-            String[] headers = null;
-
-            while ((line = br.readLine()) != null) {
-                // Normalize BOM and trim right-side spaces
-                line = stripBom(line).trim();
-                if (line.isEmpty()) continue;
-
-                // Split by tab preserving empty cells
-                String[] parts = line.split("\t", -1);
-
-                if (headers == null) {
-                    headers = parts;
-                    // Normalize header keys (trim)
-                    for (int i = 0; i < headers.length; i++) {
-                        headers[i] = headers[i] == null ? "" : headers[i].trim();
-                    }
-                    continue;
-                }
-
-                Map<String, String> obj = new LinkedHashMap<>();
-                for (int i = 0; i < headers.length; i++) {
-                    String key = headers[i].isEmpty() ? ("col_" + i) : headers[i];
-                    String value = i < parts.length ? parts[i] : "";
-                    // Keep raw value; consumer may parse numbers if needed
-                    obj.put(key, value);
-                }
-                result.add(obj);
-            }
-        }
-        return result;
-    }
-
     private static String toJson(List<Map<String, String>> rows) {
         StringBuilder sb = new StringBuilder();
         sb.append("[\n");
@@ -588,11 +604,4 @@ public class RunesTxtToJson {
         }
         return out.toString();
     }
-
-    private static String stripBom(String s) {
-        if (s != null && !s.isEmpty() && s.charAt(0) == '\uFEFF') {
-            return s.substring(1);
-        }
-        return s;
-    }
 }
@@ -0,0 +1,136 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Skill ID / name to planner display name, read from the {@code skill} and {@code Id} columns of Skills.txt.
+ * <p>
+ * IDs index a dense array; names (the Skills.txt name or the display name, any case) go through one hash
+ * lookup. Display names are the Skills.txt names except where the planner uses the in-game name
+ * ({@link #DISPLAY}); proc variants ({@code "AmpDmg Proc"}) show as their base skill and item auras
+ * ({@code "Quickness SelfAura"}) as {@code "Burst of Speed (Item Supplied)"}. A skill added to Skills.txt
+ * resolves without code changes.
+ */
+public final class SkillCatalog {
+
+    private static final String SKILLS_TEXT = System.getProperty("user.dir") + "\\data\\" + "Skills.txt";
+    private static final String PROC = " Proc";
+    private static final String SELF_AURA = " SelfAura";
+
+    // Skills.txt name -> planner name
+    private static final Map<String, String> DISPLAY = new HashMap<>();
+    // Extra lower-case names the item tables use
+    private static final Map<String, String> ALIASES = new HashMap<>();
+
+    static {
+        String[][] display = {
+                {"Dopplezon", "Decoy"}, {"Enchant", "Enchant Fire"}, {"AmpDmg", "Amplify Damage"},
+                {"Raise Skeleton", "Raise Skeleton Warrior"}, {"Poison Dagger", "Poison Strike"},
+                {"BloodGolem", "Blood Golem"}, {"IronGolem", "Iron Golem"}, {"LowRes", "Lower Resist"},
+                {"FireGolem", "Fire Golem"}, {"CurMas", "Curse Mastery"}, {"FingermageBossNova", "Bone Nova"},
+                {"One Hand Mastery", "General Mastery"}, {"Two Hand Mastery", "Polearm and Spear Mastery"},
+                {"Plague Poppy", "Poison Creeper"}, {"Wearwolf", "Werewolf"}, {"Shape Shifting", "Lycanthropy"},
+                {"Wearbear", "Werebear"}, {"Cycle of Life", "Carrion Vine"}, {"Eruption", "Fissure"},
+                {"Summon Fenris", "Summon Dire Wolf"}, {"Vines", "Solar Creeper"},
+                {"Fire Trauma", "Fire Blast"}, {"Claw Mastery", "Claw and Dagger Mastery"},
+                {"Shock Field", "Shock Web"}, {"Quickness", "Burst of Speed"},
+                {"Wake of Fire Sentry", "Wake of Fire"}, {"Inferno Sentry", "Wake of Inferno"},
+                {"Royal Strike", "Phoenix Strike"}};
+        for (String[] d : display) {
+            DISPLAY.put(d[0], d[1]);
+        }
+        ALIASES.put("plague poppy", "Carrion Vine");
+        ALIASES.put("amplify damage proc", "Amplify Damage");
+    }
+
+    private static volatile SkillCatalog instance;
+
+    private final String[] byId;
+    private final Map<String, String> byName;
+
+    private SkillCatalog(String[] byId, Map<String, String> byName) {
+        this.byId = byId;
+        this.byName = byName;
+    }
+
+    /**
+     * The catalog of the current Skills.txt, read on first use.
+     */
+    public static SkillCatalog get() {
+        SkillCatalog c = instance;
+        if (c == null) {
+            synchronized (SkillCatalog.class) {
+                c = instance;
+                if (c == null) {
+                    try {
+                        c = load(Paths.get(SKILLS_TEXT));
+                    } catch (IOException e) {
+                        throw new UncheckedIOException("Failed to read " + SKILLS_TEXT, e);
+                    }
+                    instance = c;
+                }
+            }
+        }
+        return c;
+    }
+
+    // Drops the loaded catalog so the next get() rereads Skills.txt (watch mode)
+    public static synchronized void reset() {
+        instance = null;
+    }
+
+    static SkillCatalog load(Path path) throws IOException {
+        TsvTable table = TsvTable.read(path, Arrays.asList("skill", "Id"));
+        TsvTable.StringColumn skill = table.column("skill");
+        TsvTable.IntColumn id = table.intColumn("Id");
+
+        int maxId = -1;
+        for (int r = 0; r < table.rowCount(); r++) {
+            if (!id.isMissing(r)) maxId = Math.max(maxId, id.get(r));
+        }
+        String[] byId = new String[maxId + 1];
+        Map<String, String> byName = new HashMap<>(table.rowCount() * 4);
+        for (int r = 0; r < table.rowCount(); r++) {
+            String name = skill.get(r).trim();
+            if (id.isMissing(r) || id.get(r) < 0 || name.isEmpty() || byId[id.get(r)] != null) continue;
+            String shown = displayName(name);
+            byId[id.get(r)] = shown;
+            byName.putIfAbsent(key(name), shown);
+            byName.putIfAbsent(key(shown), shown);
+            if (name.endsWith(PROC)) byName.putIfAbsent(key(shown + " (proc)"), shown);
+        }
+        byName.putAll(ALIASES);
+        return new SkillCatalog(byId, byName);
+    }
+
+    /**
+     * Display name of a skill ID ({@code "6"}) or name ({@code "Magic Arrow"}, any case); null if unknown.
+     */
+    public String name(String idOrName) {
+        String s = idOrName.trim();
+        if (!s.isEmpty() && s.length() < 10 && s.chars().allMatch(ch -> ch >= '0' && ch <= '9')) {
+            int n = Integer.parseInt(s);
+            return n < byId.length ? byId[n] : null;
+        }
+        return byName.get(key(s));
+    }
+
+    private static String displayName(String name) {
+        if (name.endsWith(SELF_AURA)) {
+            return displayName(name.substring(0, name.length() - SELF_AURA.length())) + " (Item Supplied)";
+        }
+        if (name.endsWith(PROC)) {
+            return displayName(name.substring(0, name.length() - PROC.length()));
+        }
+        return DISPLAY.getOrDefault(name, name);
+    }
+
+    private static String key(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,187 @@
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Offset index of the {@code var dNNN = {values:[ ... ]};} blocks of a class skill file.
+ * <p>
+ * Built by one linear scan over the file content. For every block it records the range of the
+ * values array and, for every inner array {@code ["label", n1, n2, ...]}, the range of its numbers.
+ * Lookups by (d-code, label) are then two hash probes; no regex is compiled per lookup.
+ * <p>
+ * Matching follows the regex the updater used before: the first block per key wins, labels are
+ * matched exactly, and a number list ends at the first ']' with trailing whitespace excluded.
+ */
+public final class SkillFileIndex {
+
+    private final Map<String, Block> blocks = new HashMap<>();
+
+    private SkillFileIndex() {
+    }
+
+    /**
+     * Indexes {@code content} in a single pass.
+     */
+    public static SkillFileIndex parse(CharSequence content) {
+        SkillFileIndex index = new SkillFileIndex();
+        int n = content.length();
+        int i = 0;
+        while (i < n) {
+            int next = indexOf(content, "var", i, n);
+            if (next < 0) break;
+            int end = index.tryBlock(content, next, n);
+            i = end > next ? end : next + 3;
+        }
+        return index;
+    }
+
+    /**
+     * Returns {start, end} (end exclusive) of the numbers of {@code label} in {@code var d<varCodeKey>}.
+     *
+     * @param fileName   File name, only used in error messages.
+     * @param varCodeKey The code key with or without the leading "d", e.g., "122" or "d122".
+     * @throws IllegalArgumentException If the key or label cannot be found
+     */
+    public int[] locate(String fileName, String varCodeKey, String label) {
+        if (varCodeKey.startsWith("d"))
+            varCodeKey = varCodeKey.substring(1);
+        Block block = blocks.get(varCodeKey);
+        if (block == null) {
+            throw new IllegalArgumentException(fileName + " Could not find var d" + varCodeKey + " block.");
+        }
+        int[] range = block.lists.get(label);
+        if (range == null) {
+            throw new IllegalArgumentException(fileName + " Label \"" + label + "\" not found under d" + varCodeKey + ".");
+        }
+        return range;
+    }
+
+    /**
+     * Returns {start, end} (end exclusive) of the values array of {@code var d<varCodeKey>}, or null.
+     */
+    public int[] blockRange(String varCodeKey) {
+        Block block = blocks.get(varCodeKey.startsWith("d") ? varCodeKey.substring(1) : varCodeKey);
+        return block == null ? null : new int[]{block.start, block.end};
+    }
+
+    // Parses "var d<key> = {values:[ ... ]};" starting at 'var'. Returns the index after the block, or -1.
+    private int tryBlock(CharSequence s, int at, int n) {
+        if (at > 0 && isIdentChar(s.charAt(at - 1))) return -1;
+        int i = at + 3;
+        int ws = skipWs(s, i, n);
+        if (ws == i) return -1;
+        i = ws;
+        if (i >= n || s.charAt(i) != 'd') return -1;
+        int keyStart = i + 1;
+        i = keyStart;
+        while (i < n && isIdentChar(s.charAt(i))) i++;
+        if (i == keyStart) return -1;
+        String key = s.subSequence(keyStart, i).toString();
+
+        i = skipWs(s, i, n);
+        if (!expect(s, i, n, "=")) return -1;
+        i = skipWs(s, i + 1, n);
+        if (!expect(s, i, n, "{")) return -1;
+        i = skipWs(s, i + 1, n);
+        if (!expect(s, i, n, "values")) return -1;
+        i = skipWs(s, i + 6, n);
+        if (!expect(s, i, n, ":")) return -1;
+        i = skipWs(s, i + 1, n);
+        if (!expect(s, i, n, "[")) return -1;
+        int valuesStart = i + 1;
+
+        // values end at the first ']' followed by optional whitespace and "};"
+        int valuesEnd = -1;
+        int after = -1;
+        for (int j = valuesStart; j < n; j++) {
+            if (s.charAt(j) != ']') continue;
+            int k = skipWs(s, j + 1, n);
+            if (k + 1 < n && s.charAt(k) == '}' && s.charAt(k + 1) == ';') {
+                valuesEnd = j;
+                after = k + 2;
+                break;
+            }
+        }
+        if (valuesEnd < 0) return -1;
+
+        if (!blocks.containsKey(key)) {
+            blocks.put(key, indexLists(s, valuesStart, valuesEnd));
+        }
+        return after;
+    }
+
+    // Indexes every ["label", ...] inside [from, to).
+    private static Block indexLists(CharSequence s, int from, int to) {
+        Block block = new Block(from, to);
+        for (int i = from; i < to; i++) {
+            if (s.charAt(i) != '[') continue;
+            int j = skipWs(s, i + 1, to);
+            if (j >= to || s.charAt(j) != '"') continue;
+            int labelEnd = -1;
+            for (int k = j + 1; k < to; k++) {
+                if (s.charAt(k) == '"') {
+                    labelEnd = k;
+                    break;
+                }
+            }
+            if (labelEnd < 0) break;
+            int c = skipWs(s, labelEnd + 1, to);
+            if (c >= to || s.charAt(c) != ',') continue;
+            int listStart = skipWs(s, c + 1, to);
+            int close = -1;
+            for (int k = listStart; k < to; k++) {
+                if (s.charAt(k) == ']') {
+                    close = k;
+                    break;
+                }
+            }
+            if (close < 0) continue;
+            int listEnd = close;
+            while (listEnd > listStart && Character.isWhitespace(s.charAt(listEnd - 1))) listEnd--;
+
+            String label = s.subSequence(j + 1, labelEnd).toString();
+            block.lists.putIfAbsent(label, new int[]{listStart, listEnd});
+        }
+        return block;
+    }
+
+    private static int indexOf(CharSequence s, String needle, int from, int n) {
+        char first = needle.charAt(0);
+        outer:
+        for (int i = from; i <= n - needle.length(); i++) {
+            if (s.charAt(i) != first) continue;
+            for (int k = 1; k < needle.length(); k++) {
+                if (s.charAt(i + k) != needle.charAt(k)) continue outer;
+            }
+            return i;
+        }
+        return -1;
+    }
+
+    private static boolean expect(CharSequence s, int i, int n, String token) {
+        if (i + token.length() > n) return false;
+        for (int k = 0; k < token.length(); k++) {
+            if (s.charAt(i + k) != token.charAt(k)) return false;
+        }
+        return true;
+    }
+
+    private static int skipWs(CharSequence s, int i, int n) {
+        while (i < n && Character.isWhitespace(s.charAt(i))) i++;
+        return i;
+    }
+
+    private static boolean isIdentChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '_' || c == '$';
+    }
+
+    private static final class Block {
+        final int start;
+        final int end;
+        final Map<String, int[]> lists = new HashMap<>();
+
+        Block(int start, int end) {
+            this.start = start;
+            this.end = end;
+        }
+    }
+}
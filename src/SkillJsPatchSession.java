@@ -0,0 +1,130 @@
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * Batches {@code updateNumberList} edits against the class skill files (data/skills/PD2/*.js).
+ * <p>
+ * Each file is read and indexed ({@link SkillFileIndex}) once, the first time an edit targets it.
+ * Edits are resolved against that in-memory copy and queued; nothing touches the disk until
+ * {@link #commit()}, which splices all queued edits of a file in one pass and writes the file once.
+ * <p>
+ * Usage:
+ * <pre>
+ *   SkillJsPatchSession session = new SkillJsPatchSession();
+ *   session.updateNumberList(path, "d122", "attack rating bonus", "20,32,44");
+ *   ...
+ *   session.commit();
+ * </pre>
+ */
+public class SkillJsPatchSession {
+
+    private final Map<Path, PendingFile> files = new LinkedHashMap<>();
+
+    /**
+     * Queues a replacement of the number list for {@code label} inside {@code var d<varCodeKey>}.
+     * Failures are reported on stderr, like {@link ClassJSUpdater#updateNumberList(Path, String, String, String)}.
+     */
+    public void updateNumberList(Path jsPath, String varCodeKey, String label, String newNumbersCsv) throws IOException {
+        try {
+            queue(jsPath, varCodeKey, label, newNumbersCsv);
+        } catch (IllegalArgumentException e) {
+            System.err.println("Failed to update " + jsPath.getFileName() + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Queues the replacement for the first label in {@code labels} that exists in the var block.
+     */
+    public void updateNumberList(Path jsPath, String varCodeKey, List<String> labels, String newNumbersCsv) throws IOException {
+        IllegalArgumentException e = null;
+        for (String l : labels) {
+            try {
+                queue(jsPath, varCodeKey, l, newNumbersCsv);
+                return;
+            } catch (IllegalArgumentException ee) {
+                e = ee;
+            }
+        }
+        if (e != null)
+            System.err.println(e.getMessage());
+    }
+
+    /**
+     * Applies all queued edits and writes every touched file once, through {@link OutputSink}, so a
+     * file whose edits change nothing keeps its bytes and mtime.
+     *
+     * @return number of files that changed
+     */
+    public int commit() throws IOException {
+        int written = 0;
+        for (PendingFile file : files.values()) {
+            if (file.edits.isEmpty()) continue;
+            if (OutputSink.write(file.path, file.apply())) written++;
+        }
+        files.clear();
+        return written;
+    }
+
+    private void queue(Path jsPath, String varCodeKey, String label, String newNumbersCsv) throws IOException {
+        if (varCodeKey.startsWith("d"))
+            varCodeKey = varCodeKey.substring(1);
+        if (newNumbersCsv.startsWith(","))
+            newNumbersCsv = newNumbersCsv.substring(1);
+
+        PendingFile file = files.get(jsPath);
+        if (file == null) {
+            file = new PendingFile(jsPath, Files.readString(jsPath, StandardCharsets.UTF_8));
+            files.put(jsPath, file);
+        }
+        int[] range = file.index.locate(jsPath.getFileName().toString(), varCodeKey, label);
+        file.edits.add(new Edit(range[0], range[1], newNumbersCsv, file.edits.size()));
+    }
+
+    private static final class Edit {
+        final int start;
+        final int end;
+        final String replacement;
+        final int seq;
+
+        Edit(int start, int end, String replacement, int seq) {
+            this.start = start;
+            this.end = end;
+            this.replacement = replacement;
+            this.seq = seq;
+        }
+    }
+
+    private static final class PendingFile {
+        final Path path;
+        final String content;
+        final SkillFileIndex index;
+        final List<Edit> edits = new ArrayList<>();
+
+        PendingFile(Path path, String content) {
+            this.path = path;
+            this.content = content;
+            this.index = SkillFileIndex.parse(content);
+        }
+
+        // Edits only ever replace number lists, so ranges resolved against the original content stay valid.
+        // When the same list is edited twice the later edit wins, as it did with read-modify-write per label.
+        String apply() {
+            List<Edit> sorted = new ArrayList<>(edits);
+            sorted.sort(Comparator.comparingInt((Edit e) -> e.start).thenComparingInt(e -> e.seq));
+
+            StringBuilder out = new StringBuilder(content.length() + 1024);
+            int pos = 0;
+            for (int i = 0; i < sorted.size(); i++) {
+                Edit e = sorted.get(i);
+                if (i + 1 < sorted.size() && sorted.get(i + 1).start == e.start) continue;
+                out.append(content, pos, e.start).append(e.replacement);
+                pos = e.end;
+            }
+            out.append(content, pos, content.length());
+            return out.toString();
+        }
+    }
+}
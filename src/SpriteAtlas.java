@@ -0,0 +1,260 @@
+import javax.imageio.ImageIO;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * Packs the skill icons into sprite sheets, one per folder (images/skills/amazon, images/skills/paladin, ...),
+ * so the page can fetch a few sheets instead of hundreds of PNGs.
+ * <p>
+ * Writes the sheets to images/atlas, plus two maps of where each icon sits:
+ * data/image_atlas.js ({@code image_atlas["skills/amazon"].sprites["Multiple Shot"] = [x, y, w, h]})
+ * and data/image_atlas.css ({@code .atlas-skills-amazon[data-sprite="Multiple Shot"]}). Icons are keyed
+ * by file name without ".png". Sheets of folders that no longer hold an icon are deleted.
+ * <p>
+ * Item art is not packed: most unique-item images are WebP saved as .png (see {@link BulkRenameWebpToPng}),
+ * which ImageIO cannot decode. Any such file found here is listed and left out.
+ */
+public class SpriteAtlas {
+
+    private static final String rootdir = System.getProperty("user.dir");
+    private static final Path IMAGES = Paths.get(rootdir, "images");
+    private static final Path SOURCE = IMAGES.resolve("skills");
+    private static final Path ATLAS_DIR = IMAGES.resolve("atlas");
+    private static final Path JS_OUT = Paths.get(rootdir, "data", "image_atlas.js");
+    private static final Path CSS_OUT = Paths.get(rootdir, "data", "image_atlas.css");
+    private static final String EXTENSION = ".png";
+    // Transparent gap between icons, so scaled sprites do not bleed into their neighbours
+    private static final int PADDING = 1;
+
+    public static void main(String[] args) {
+        if (!Files.isDirectory(SOURCE)) {
+            System.err.println("Error: The provided path is not a directory: " + SOURCE);
+            System.exit(2);
+        }
+        Map<String, List<Path>> folders = new TreeMap<>();
+        collect(SOURCE, folders);
+
+        try {
+            List<Sheet> sheets = folders.entrySet().parallelStream()
+                    .map(e -> pack(e.getKey(), e.getValue()))
+                    .filter(s -> !s.sprites.isEmpty())
+                    .collect(Collectors.toList());
+
+            int files = 0;
+            int sprites = 0;
+            for (List<Path> f : folders.values()) {
+                files += f.size();
+            }
+            for (Sheet s : sheets) {
+                sprites += s.sprites.size();
+            }
+
+            OutputSink.write(JS_OUT, toJs(sheets));
+            OutputSink.write(CSS_OUT, toCss(sheets));
+            pruneSheets(sheets);
+            System.out.printf("Done. Sheets: %d, Sprites: %d, Skipped (not decodable): %d%n", sheets.size(), sprites, files - sprites);
+            System.out.println(OutputSink.report());
+        } catch (IOException | UncheckedIOException e) {
+            System.err.println("Error: " + e.getMessage());
+        }
+    }
+
+    // Every folder below source that holds PNGs, keyed by its path relative to images/ ("skills/amazon")
+    private static void collect(Path source, Map<String, List<Path>> folders) {
+        try {
+            Files.walkFileTree(source, new SimpleFileVisitor<>() {
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                    if (attrs.isRegularFile() && file.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(EXTENSION)) {
+                        folders.computeIfAbsent(sheetKey(file.getParent()), k -> new ArrayList<>()).add(file);
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFileFailed(Path file, IOException exc) {
+                    System.err.println("Failed to access: " + file + " -> " + exc.getMessage());
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException e) {
+            System.err.println("Fatal error while walking directory: " + e.getMessage());
+        }
+    }
+
+    private static String sheetKey(Path dir) {
+        return IMAGES.relativize(dir).toString().replace('\\', '/');
+    }
+
+    private static Sheet pack(String key, List<Path> files) {
+        List<Sprite> sprites = new ArrayList<>();
+        // By name, so the sheets and maps do not depend on the order the OS lists files in
+        files.sort(Comparator.comparing(f -> f.getFileName().toString()));
+        for (Path f : files) {
+            BufferedImage img;
+            try {
+                img = ImageIO.read(f.toFile());
+            } catch (IOException e) {
+                img = null;
+            }
+            if (img == null) {
+                System.err.println("Skipped (not decodable): " + f);
+                continue;
+            }
+            String name = f.getFileName().toString();
+            sprites.add(new Sprite(name.substring(0, name.length() - EXTENSION.length()), img));
+        }
+        Sheet sheet = new Sheet(key, sprites);
+        if (sprites.isEmpty()) return sheet;
+
+        layout(sheet);
+        BufferedImage atlas = new BufferedImage(sheet.width, sheet.height, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = atlas.createGraphics();
+        for (Sprite s : sprites) {
+            g.drawImage(s.image, s.x, s.y, null);
+            s.image = null;
+        }
+        g.dispose();
+        try (OutputSink.Output out = OutputSink.open(ATLAS_DIR.resolve(sheet.fileName()))) {
+            ImageIO.write(atlas, "png", out.stream());
+            out.commit();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write sheet " + key, e);
+        }
+        return sheet;
+    }
+
+    /**
+     * Shelf packing: tallest icons first, left to right in rows as wide as a square of the total area
+     * (at least the widest icon); each row is as tall as its first icon. Sets the sprite and sheet positions.
+     */
+    private static void layout(Sheet sheet) {
+        List<Sprite> order = new ArrayList<>(sheet.sprites);
+        order.sort(Comparator.comparingInt((Sprite s) -> -s.h).thenComparingInt(s -> -s.w).thenComparing(s -> s.name));
+        long area = 0;
+        int widest = 0;
+        for (Sprite s : order) {
+            area += (long) (s.w + PADDING) * (s.h + PADDING);
+            widest = Math.max(widest, s.w + PADDING);
+        }
+        int rowWidth = Math.max(widest, (int) Math.ceil(Math.sqrt(area)));
+
+        int x = 0;
+        int y = 0;
+        int shelf = 0;
+        int width = 0;
+        for (Sprite s : order) {
+            if (x > 0 && x + s.w + PADDING > rowWidth) {
+                x = 0;
+                y += shelf;
+                shelf = 0;
+            }
+            s.x = x;
+            s.y = y;
+            x += s.w + PADDING;
+            shelf = Math.max(shelf, s.h + PADDING);
+            width = Math.max(width, x);
+        }
+        sheet.width = width - PADDING;
+        sheet.height = y + shelf - PADDING;
+    }
+
+    // Deletes sheets in images/atlas that were not written this time
+    private static void pruneSheets(List<Sheet> sheets) throws IOException {
+        Set<String> keep = new HashSet<>();
+        for (Sheet s : sheets) {
+            keep.add(s.fileName());
+        }
+        if (!Files.isDirectory(ATLAS_DIR)) return;
+        try (DirectoryStream<Path> ds = Files.newDirectoryStream(ATLAS_DIR, "*" + EXTENSION)) {
+            for (Path p : ds) {
+                if (!keep.contains(p.getFileName().toString())) Files.deleteIfExists(p);
+            }
+        }
+    }
+
+    private static String toJs(List<Sheet> sheets) {
+        StringBuilder sb = new StringBuilder(64 * 1024);
+        sb.append("// Generated by SpriteAtlas; sprites are [x, y, width, height] in the sheet\n");
+        sb.append("var image_atlas = {\n");
+        for (Sheet sheet : sheets) {
+            sb.append("\t\"").append(sheet.key).append("\": {sheet: \"./images/atlas/").append(sheet.fileName())
+                    .append("\", width: ").append(sheet.width).append(", height: ").append(sheet.height)
+                    .append(", sprites: {\n");
+            for (Sprite s : sheet.sprites) {
+                sb.append("\t\t\"").append(escape(s.name)).append("\": [").append(s.x).append(", ").append(s.y)
+                        .append(", ").append(s.w).append(", ").append(s.h).append("],\n");
+            }
+            sb.append("\t}},\n");
+        }
+        sb.append("};\n");
+        return sb.toString();
+    }
+
+    private static String toCss(List<Sheet> sheets) {
+        StringBuilder sb = new StringBuilder(64 * 1024);
+        sb.append("/* Generated by SpriteAtlas: <div class=\"atlas-skills-amazon\" data-sprite=\"Jab\"> */\n");
+        for (Sheet sheet : sheets) {
+            String cls = ".atlas-" + sheet.key.replace('/', '-');
+            sb.append(cls).append(" { background-image: url(\"../images/atlas/").append(sheet.fileName())
+                    .append("\"); background-repeat: no-repeat; display: inline-block; }\n");
+            for (Sprite s : sheet.sprites) {
+                sb.append(cls).append("[data-sprite=\"").append(escape(s.name)).append("\"] { background-position: ")
+                        .append(-s.x).append("px ").append(-s.y).append("px; width: ").append(s.w)
+                        .append("px; height: ").append(s.h).append("px; }\n");
+            }
+        }
+        return sb.toString();
+    }
+
+    // For a double-quoted JS or CSS string
+    private static String escape(String s) {
+        return s.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+
+    private static final class Sheet {
+        final String key;
+        // By file name, the order the maps list them in
+        final List<Sprite> sprites;
+        int width;
+        int height;
+
+        Sheet(String key, List<Sprite> sprites) {
+            this.key = key;
+            this.sprites = sprites;
+        }
+
+        String fileName() {
+            return key.replace('/', '-') + EXTENSION;
+        }
+    }
+
+    private static final class Sprite {
+        final String name;
+        final int w;
+        final int h;
+        BufferedImage image;
+        int x;
+        int y;
+
+        Sprite(String name, BufferedImage image) {
+            this.name = name;
+            this.image = image;
+            this.w = image.getWidth();
+            this.h = image.getHeight();
+        }
+    }
+}
@@ -0,0 +1,96 @@
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * One step of the update pipeline together with the files it reads and writes.
+ * <p>
+ * The declared files are what {@link StageScheduler} orders stages by, so they must cover every
+ * file the action touches. A file edited in place is both an input and an output. Files whose names are
+ * only known once the stage has run (content-hashed copies) cannot be declared; such a stage declares the
+ * file that lists them and passes an {@link OutputCheck} confirming they are all still there.
+ */
+public final class Stage {
+
+    public interface Action {
+        void run() throws Exception;
+    }
+
+    public interface OutputCheck {
+        boolean intact() throws Exception;
+    }
+
+    private final String name;
+    private final List<Path> inputs;
+    private final List<Path> outputs;
+    private final Action action;
+    private final OutputCheck outputCheck;
+
+    public Stage(String name, List<Path> inputs, List<Path> outputs, Action action) {
+        this(name, inputs, outputs, action, null);
+    }
+
+    public Stage(String name, List<Path> inputs, List<Path> outputs, Action action, OutputCheck outputCheck) {
+        this.name = name;
+        this.inputs = normalize(inputs);
+        this.outputs = normalize(outputs);
+        this.action = action;
+        this.outputCheck = outputCheck;
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public List<Path> inputs() {
+        return inputs;
+    }
+
+    public List<Path> outputs() {
+        return outputs;
+    }
+
+    public void run() throws Exception {
+        action.run();
+    }
+
+    /**
+     * False if the outputs the stage could not declare are missing or damaged, so it has to run again.
+     */
+    public boolean outputsIntact() {
+        if (outputCheck == null) return true;
+        try {
+            return outputCheck.intact();
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    /**
+     * True when the two stages cannot run at the same time: one writes a file the other reads or writes.
+     */
+    public boolean conflictsWith(Stage other) {
+        return intersects(outputs, other.inputs) || intersects(outputs, other.outputs) || intersects(inputs, other.outputs);
+    }
+
+    private static boolean intersects(List<Path> a, List<Path> b) {
+        for (Path p : a) {
+            if (b.contains(p)) return true;
+        }
+        return false;
+    }
+
+    private static List<Path> normalize(List<Path> paths) {
+        List<Path> out = new ArrayList<>(paths.size());
+        for (Path p : paths) {
+            out.add(p.toAbsolutePath().normalize());
+        }
+        return Collections.unmodifiableList(out);
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
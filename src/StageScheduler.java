@@ -0,0 +1,175 @@
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Runs {@link Stage}s as a dependency graph on a thread pool.
+ * <p>
+ * Stages are added in their sequential order. A stage waits for every earlier stage it conflicts
+ * with ({@link Stage#conflictsWith(Stage)}), so stages that write the same file run one after another
+ * in the order they were added, and everything else runs in parallel. The result is the same as
+ * running the stages one by one.
+ * <p>
+ * A failing stage (an exception or an error) is reported and does not stop the others, like the sequential
+ * runner did; the run still prints its critical path, saves the manifest and returns false.
+ * After the run the critical path (the longest chain of dependent stages) is printed.
+ * <p>
+ * With a {@link BuildManifest} attached, a stage whose inputs and outputs are unchanged since its last
+ * successful run is skipped. The check happens when the stage is due, after the stages it depends on
+ * have finished, so a stage that consumes a regenerated file sees the new hash.
+ */
+public final class StageScheduler {
+
+    private final List<Stage> stages = new ArrayList<>();
+    private BuildManifest manifest;
+    private boolean force;
+
+    public StageScheduler add(Stage stage) {
+        stages.add(stage);
+        return this;
+    }
+
+    public List<Stage> stages() {
+        return Collections.unmodifiableList(stages);
+    }
+
+    /**
+     * Skips up-to-date stages using {@code manifest} and records every successful run in it.
+     *
+     * @param force Run every stage anyway (the manifest is still updated)
+     */
+    public StageScheduler useManifest(BuildManifest manifest, boolean force) {
+        this.manifest = manifest;
+        this.force = force;
+        return this;
+    }
+
+    /**
+     * Runs all stages and waits for them.
+     *
+     * @param threads Pool size; 1 runs the stages sequentially in the order added.
+     * @return true if every stage succeeded
+     */
+    public boolean run(int threads) {
+        int n = stages.size();
+        List<List<Integer>> deps = new ArrayList<>(n);
+        for (int j = 0; j < n; j++) {
+            List<Integer> d = new ArrayList<>();
+            for (int i = 0; i < j; i++) {
+                if (stages.get(i).conflictsWith(stages.get(j))) d.add(i);
+            }
+            deps.add(d);
+        }
+
+        long[] startMs = new long[n];
+        long[] endMs = new long[n];
+        boolean[] ok = new boolean[n];
+        boolean[] skipped = new boolean[n];
+        long t0 = System.currentTimeMillis();
+
+        ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, Math.min(threads, n)), r -> {
+            Thread t = new Thread(r, "stage");
+            t.setDaemon(true);
+            return t;
+        });
+        try {
+            List<CompletableFuture<Object>> futures = new ArrayList<>(n);
+            for (int j = 0; j < n; j++) {
+                final int idx = j;
+                CompletableFuture<?>[] before = deps.get(j).stream().map(futures::get).toArray(CompletableFuture[]::new);
+                futures.add(CompletableFuture.allOf(before).thenRunAsync(() -> {
+                    startMs[idx] = System.currentTimeMillis() - t0;
+                    Stage stage = stages.get(idx);
+                    Map<Path, String> inputHashes = manifest == null ? null : manifest.hashInputs(stage);
+                    if (manifest != null && !force && manifest.isUpToDate(stage, inputHashes) && stage.outputsIntact()) {
+                        System.out.println("=== " + stage.name() + " skipped (inputs unchanged) ===");
+                        skipped[idx] = true;
+                        ok[idx] = true;
+                    } else {
+                        ok[idx] = runStage(stage);
+                        if (manifest != null) {
+                            if (ok[idx]) manifest.record(stage, inputHashes);
+                            else manifest.forget(stage);
+                        }
+                    }
+                    endMs[idx] = System.currentTimeMillis() - t0;
+                }, pool).handle((v, t) -> {
+                    // Anything the stage body let through (the manifest checks); dependents still run
+                    if (t != null) {
+                        System.err.println("=== " + stages.get(idx).name() + " FAILED ===");
+                        t.printStackTrace();
+                        ok[idx] = false;
+                        endMs[idx] = System.currentTimeMillis() - t0;
+                    }
+                    return null;
+                }));
+            }
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).join();
+        } finally {
+            pool.shutdown();
+        }
+
+        printCriticalPath(deps, startMs, endMs, System.currentTimeMillis() - t0);
+        if (manifest != null) {
+            List<String> names = new ArrayList<>();
+            for (int i = 0; i < n; i++) {
+                if (skipped[i]) names.add(stages.get(i).name());
+            }
+            System.out.println("Skipped stages: " + (names.isEmpty() ? "none" : String.join(", ", names)));
+            try {
+                manifest.save();
+            } catch (IOException e) {
+                System.err.println("Could not save build manifest: " + e.getMessage());
+            }
+        }
+        for (boolean b : ok) {
+            if (!b) return false;
+        }
+        return true;
+    }
+
+    private static boolean runStage(Stage stage) {
+        System.out.println("=== Running " + stage.name() + " ===");
+        long t0 = System.currentTimeMillis();
+        try {
+            stage.run();
+            System.out.println("=== " + stage.name() + " OK (" + (System.currentTimeMillis() - t0) + " ms) ===");
+            return true;
+        } catch (Throwable ex) {
+            // Errors too, e.g. an ExceptionInInitializerError from a static table
+            System.err.println("=== " + stage.name() + " FAILED (" + (System.currentTimeMillis() - t0) + " ms) ===");
+            ex.printStackTrace();
+            return false;
+        }
+    }
+
+    // Longest chain by stage duration; deps only point backwards, so one forward pass is enough.
+    private void printCriticalPath(List<List<Integer>> deps, long[] startMs, long[] endMs, long wallMs) {
+        int n = stages.size();
+        if (n == 0) return;
+        long[] pathMs = new long[n];
+        int[] prev = new int[n];
+        int last = 0;
+        for (int j = 0; j < n; j++) {
+            prev[j] = -1;
+            long best = 0;
+            for (int i : deps.get(j)) {
+                if (pathMs[i] > best) {
+                    best = pathMs[i];
+                    prev[j] = i;
+                }
+            }
+            pathMs[j] = best + (endMs[j] - startMs[j]);
+            if (pathMs[j] > pathMs[last]) last = j;
+        }
+
+        Deque<String> chain = new ArrayDeque<>();
+        for (int j = last; j >= 0; j = prev[j]) {
+            chain.addFirst(stages.get(j).name() + " (" + (endMs[j] - startMs[j]) + " ms)");
+        }
+        System.out.println("Critical path: " + String.join(" -> ", chain) + " = " + pathMs[last] + " ms, wall " + wallMs + " ms");
+    }
+}
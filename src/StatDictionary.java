@@ -0,0 +1,50 @@
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Interns planner stat keys ({@code "fRes"}, {@code "skills_fire"}, ...) to small int ids, see {@link StatVector}.
+ * <p>
+ * Ids are dense and never reused. The numbered copies a repeated ctc / aura stat gets
+ * ({@code "hit_skill"} to {@code "hit_skill_2"}) are interned once and cached per id.
+ */
+final class StatDictionary {
+
+    private static final Map<String, Integer> IDS = new HashMap<>();
+    private static volatile String[] names = new String[256];
+    private static int count;
+    // suffixed[id][i] = id of name(id) + "_" + i, 0 = not interned yet
+    private static int[][] suffixed = new int[256][];
+
+    private StatDictionary() {
+    }
+
+    static synchronized int id(String key) {
+        Integer id = IDS.get(key);
+        if (id != null) return id;
+        if (count == names.length) {
+            names = Arrays.copyOf(names, count * 2);
+            suffixed = Arrays.copyOf(suffixed, count * 2);
+        }
+        names[count] = key;
+        IDS.put(key, count);
+        return count++;
+    }
+
+    static String name(int id) {
+        return names[id];
+    }
+
+    // id of name(id) + "_" + i
+    static synchronized int suffixed(int id, int i) {
+        int[] cache = suffixed[id];
+        if (cache == null || cache.length <= i) {
+            cache = cache == null ? new int[Math.max(4, i + 1)] : Arrays.copyOf(cache, Math.max(cache.length * 2, i + 1));
+            suffixed[id] = cache;
+        }
+        if (cache[i] == 0) {
+            cache[i] = id(names[id] + "_" + i);
+        }
+        return cache[i];
+    }
+}
@@ -0,0 +1,209 @@
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The stats of one item, rune or runeword while they are being built: keys are {@link StatDictionary} ids
+ * in insertion order, int values live in an {@code int[]} and are summed in place when merged.
+ * <p>
+ * Values that are not ints (skill names, fractional per-level stats, set bonus lists) are kept in a side
+ * array next to the ints and are overwritten on merge. {@link #toMap()} gives the row the writers expect,
+ * with the keys in the order they were first added.
+ * <p>
+ * {@link #immutable()} gives a read-only copy that can be shared between threads (cached rune and runeword stats).
+ */
+final class StatVector {
+
+    // A stat added again while one is present gets numbered copies of all its stats ("hit_skill_2", ...)
+    private static final int[] CHANCE_SKILLS = ids("aura", "cast_skill", "hit_skill", "gethit_skill",
+            "ondeath_skill", "onkill_skill", "onlevel_skill", "onblock_skill", "charges_skill", "strike_skill",
+            "equipped_skill");
+    private static final Object NULL = new Object();
+
+    private int[] keys;
+    private int[] ints;
+    // null for int values
+    private Object[] objects;
+    private int size;
+    private boolean readOnly;
+
+    StatVector() {
+        this(16);
+    }
+
+    StatVector(int capacity) {
+        keys = new int[capacity];
+        ints = new int[capacity];
+        objects = new Object[capacity];
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    void clear() {
+        checkWritable();
+        Arrays.fill(objects, 0, size, null);
+        size = 0;
+    }
+
+    boolean has(int id) {
+        return indexOf(id) >= 0;
+    }
+
+    Object get(String key) {
+        int k = indexOf(StatDictionary.id(key));
+        return k < 0 ? null : value(k);
+    }
+
+    void put(String key, Object val) {
+        put(StatDictionary.id(key), val);
+    }
+
+    // Sets the value, replacing any previous one
+    void put(int id, Object val) {
+        checkWritable();
+        int k = slot(id);
+        if (val instanceof Integer) {
+            ints[k] = (Integer) val;
+            objects[k] = null;
+        } else {
+            objects[k] = val == null ? NULL : val;
+        }
+    }
+
+    void putInt(int id, int val) {
+        checkWritable();
+        int k = slot(id);
+        ints[k] = val;
+        objects[k] = null;
+    }
+
+    // Sets every stat of other, replacing present values
+    void putAll(StatVector other) {
+        checkWritable();
+        for (int k = 0; k < other.size; k++) {
+            copy(other, k, other.keys[k], false);
+        }
+    }
+
+    /**
+     * Adds the stats of {@code addition}: ints present on both sides are summed, any other value replaces
+     * the present one. When {@code addition} brings a ctc / aura skill this vector already has, all of its
+     * stats are added as the next free numbered copy ({@code _2}, {@code _3}, ...) instead.
+     */
+    void merge(StatVector addition) {
+        checkWritable();
+        if (addition == null || addition.size == 0) return;
+        int suffix = 0;
+        for (int chance : CHANCE_SKILLS) {
+            if (addition.has(chance)) {
+                if (has(chance)) {
+                    suffix = freeSuffix(chance);
+                }
+                break;
+            }
+        }
+        for (int k = 0; k < addition.size; k++) {
+            int id = suffix == 0 ? addition.keys[k] : StatDictionary.suffixed(addition.keys[k], suffix);
+            copy(addition, k, id, true);
+        }
+    }
+
+    StatVector copy() {
+        StatVector c = new StatVector(Math.max(size, 4));
+        System.arraycopy(keys, 0, c.keys, 0, size);
+        System.arraycopy(ints, 0, c.ints, 0, size);
+        System.arraycopy(objects, 0, c.objects, 0, size);
+        c.size = size;
+        return c;
+    }
+
+    // A read-only copy (or this, if already read-only); copy() of it is writable
+    StatVector immutable() {
+        if (readOnly) return this;
+        StatVector c = copy();
+        c.readOnly = true;
+        return c;
+    }
+
+    Map<String, Object> toMap() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        for (int k = 0; k < size; k++) {
+            map.put(StatDictionary.name(keys[k]), value(k));
+        }
+        return map;
+    }
+
+    @Override
+    public String toString() {
+        return toMap().toString();
+    }
+
+    // First i >= 1 without a "<chance>_i" stat; 0 (no renaming) past 100
+    private int freeSuffix(int chance) {
+        for (int i = 1; i <= 100; i++) {
+            if (!has(StatDictionary.suffixed(chance, i))) return i;
+        }
+        System.err.println("Too many iterations on " + StatDictionary.name(chance));
+        return 0;
+    }
+
+    private void copy(StatVector from, int k, int id, boolean sum) {
+        Object val = from.objects[k];
+        int at = indexOf(id);
+        if (val == null && sum && at >= 0 && objects[at] == null) {
+            ints[at] += from.ints[k];
+            return;
+        }
+        if (at < 0) at = append(id);
+        ints[at] = from.ints[k];
+        objects[at] = val;
+    }
+
+    private void checkWritable() {
+        if (readOnly) throw new UnsupportedOperationException("read-only StatVector");
+    }
+
+    private Object value(int k) {
+        Object val = objects[k];
+        if (val == null) return ints[k];
+        return val == NULL ? null : val;
+    }
+
+    private int slot(int id) {
+        int k = indexOf(id);
+        return k >= 0 ? k : append(id);
+    }
+
+    private int append(int id) {
+        if (size == keys.length) {
+            int n = Math.max(4, size * 2);
+            keys = Arrays.copyOf(keys, n);
+            ints = Arrays.copyOf(ints, n);
+            objects = Arrays.copyOf(objects, n);
+        }
+        keys[size] = id;
+        return size++;
+    }
+
+    // Rows hold a few dozen stats; a scan over the ids beats hashing
+    private int indexOf(int id) {
+        for (int k = 0; k < size; k++) {
+            if (keys[k] == id) return k;
+        }
+        return -1;
+    }
+
+    private static int[] ids(String... keys) {
+        int[] ids = new int[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            ids[i] = StatDictionary.id(keys[i]);
+        }
+        return ids;
+    }
+}
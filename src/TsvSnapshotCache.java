@@ -0,0 +1,217 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.ShortBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * On-disk cache of parsed {@link TsvTable} layouts under build/cache/tables.
+ * <p>
+ * A snapshot is named {@code <source file>.<sha256 of its content>.tsvc}, so an edited table simply
+ * misses and gets re-scanned; older snapshots of the same source are deleted when a new one is stored.
+ * <p>
+ * Format (little-endian), column-major so each column is one run in the mapped file:
+ * <pre>
+ *   int    MAGIC, int VERSION
+ *   long   source length
+ *   int    rows, int stride, int columns
+ *   per column: short byte-length + UTF-8 header name
+ *   zero padding to a multiple of 4 bytes
+ *   int[stride] line start, int[stride] line end
+ *   per column, plus one for the cell after the last: short[stride] cell start relative to its line,
+ *   0xFFFF past the end of the line
+ * </pre>
+ * A cell ends one byte before the next column's cell starts, or at the end of its line, so lengths are
+ * not stored and a snapshot takes two bytes per cell, less than the table it indexes. Tables with a line
+ * of 64 KB or more are not cached.
+ * <p>
+ * The stride is a bound on the rows known before the scan, so a new snapshot is filled in place by
+ * one scan; only the first {@code rows} entries of each run are used. A loaded table reads its columns
+ * as {@link ShortBuffer} views over the mapping, so columns it never asks for are never read. The cell
+ * offsets point into the source file, which is still mapped for the String values.
+ * Any unreadable or mismatching snapshot is treated as a miss.
+ * <p>
+ * With {@link #keepInMemory} set (watch mode) the layouts are also kept in memory per source file,
+ * so re-reading an unchanged table in a long-running process touches neither the scanner nor the disk.
+ */
+public final class TsvSnapshotCache {
+
+    private static final int MAGIC = 0x54535643; // "TSVC"
+    private static final int VERSION = 3;
+    private static final String SUFFIX = ".tsvc";
+
+    /**
+     * Set to false to always scan the source tables.
+     */
+    public static boolean enabled = true;
+
+    /**
+     * Set to true to also keep the latest layout of every table in memory.
+     */
+    public static boolean keepInMemory = false;
+
+    private static final Map<Path, Layout> memory = new ConcurrentHashMap<>();
+
+    static Path cacheDir = Paths.get(System.getProperty("user.dir"), "build", "cache", "tables");
+
+    private TsvSnapshotCache() {
+    }
+
+    static TsvTable load(Path source, String hash, ByteBuffer sourceBytes) {
+        if (keepInMemory) {
+            Layout l = memory.get(source.toAbsolutePath());
+            if (l != null && l.hash.equals(hash) && l.length == sourceBytes.limit()) {
+                return l.table(sourceBytes);
+            }
+        }
+        Path file = snapshotPath(source, hash);
+        if (!Files.isRegularFile(file)) return null;
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer in = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size()).order(ByteOrder.LITTLE_ENDIAN);
+            if (in.getInt() != MAGIC || in.getInt() != VERSION) return null;
+            if (in.getLong() != sourceBytes.limit()) return null;
+            int rows = in.getInt();
+            int stride = in.getInt();
+            int cols = in.getInt();
+            if (rows < 0 || rows > stride) return null;
+
+            String[] headers = new String[cols];
+            for (int c = 0; c < cols; c++) {
+                byte[] name = new byte[in.getShort() & 0xFFFF];
+                in.get(name);
+                headers[c] = new String(name, StandardCharsets.UTF_8).intern();
+            }
+            in.position(align(in.position()));
+
+            if (in.remaining() < 4L * 2 * stride + 2L * (cols + 1) * stride) return null;
+            IntBuffer lines = in.slice().order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+            in.position(in.position() + 4 * 2 * stride);
+            ShortBuffer columns = in.slice().order(ByteOrder.LITTLE_ENDIAN).asShortBuffer();
+            return use(source, new Layout(hash, sourceBytes.limit(), headers, rows, stride, lines, columns), sourceBytes);
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Ignoring table snapshot " + file.getFileName() + ": " + e);
+            return null;
+        }
+    }
+
+    /**
+     * Scans a table straight into a new snapshot, writes it and returns the table over it, or null for a
+     * table that cannot have one. Failing to write only costs the next run a re-scan.
+     */
+    static TsvTable build(Path source, String hash, ByteBuffer sourceBytes) {
+        TsvTable.Header header = TsvTable.header(sourceBytes);
+        String[] headers = header != null ? header.names : new String[0];
+        int stride = header != null ? header.maxRows : 0;
+
+        byte[][] names = new byte[headers.length][];
+        int size = 4 + 4 + 8 + 4 + 4 + 4;
+        for (int c = 0; c < names.length; c++) {
+            names[c] = headers[c].getBytes(StandardCharsets.UTF_8);
+            size += 2 + names[c].length;
+        }
+        size = align(size);
+        int linesAt = size;
+        size += 4 * 2 * stride + 2 * (names.length + 1) * stride;
+
+        ByteBuffer out = ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+        out.putInt(MAGIC).putInt(VERSION);
+        out.putLong(sourceBytes.limit());
+        int rowsAt = out.position();
+        out.putInt(0).putInt(stride).putInt(names.length);
+        for (byte[] name : names) {
+            out.putShort((short) name.length).put(name);
+        }
+        out.position(linesAt);
+        IntBuffer lines = out.slice().order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+        out.position(linesAt + 4 * 2 * stride);
+        ShortBuffer columns = out.slice().order(ByteOrder.LITTLE_ENDIAN).asShortBuffer();
+
+        int rows = 0;
+        if (header != null) {
+            ShortBuffer[] offsets = new ShortBuffer[names.length + 1];
+            for (int c = 0; c < offsets.length; c++) {
+                offsets[c] = TsvTable.block(columns, c * stride, stride);
+            }
+            rows = TsvTable.fill(sourceBytes, header.bodyStart, TsvTable.block(lines, 0, stride),
+                    TsvTable.block(lines, stride, stride), new IntBuffer[names.length], new IntBuffer[names.length], offsets);
+            if (rows < 0) return null;
+        }
+        out.putInt(rowsAt, rows);
+        write(source, snapshotPath(source, hash), out.array());
+        return use(source, new Layout(hash, sourceBytes.limit(), headers, rows, stride, lines, columns), sourceBytes);
+    }
+
+    private static void write(Path source, Path file, byte[] snapshot) {
+        try {
+            Files.createDirectories(cacheDir);
+            Path tmp = Files.createTempFile(cacheDir, file.getFileName().toString(), ".tmp");
+            Files.write(tmp, snapshot);
+            try {
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+            pruneOlder(source, file);
+        } catch (IOException e) {
+            System.err.println("Could not write table snapshot " + file.getFileName() + ": " + e.getMessage());
+        }
+    }
+
+    private static TsvTable use(Path source, Layout layout, ByteBuffer sourceBytes) {
+        if (keepInMemory) memory.put(source.toAbsolutePath(), layout);
+        return layout.table(sourceBytes);
+    }
+
+    private static int align(int offset) {
+        return (offset + 3) & ~3;
+    }
+
+    private static Path snapshotPath(Path source, String hash) {
+        return cacheDir.resolve(source.getFileName() + "." + hash + SUFFIX);
+    }
+
+    private static void pruneOlder(Path source, Path keep) throws IOException {
+        String prefix = source.getFileName() + ".";
+        try (DirectoryStream<Path> ds = Files.newDirectoryStream(cacheDir)) {
+            for (Path p : ds) {
+                String name = p.getFileName().toString();
+                // "<source>.<64 hex>.tsvc" only, so "Skills.txt" never prunes "Skills.txt.bak.<hash>.tsvc"
+                if (!p.equals(keep) && name.startsWith(prefix) && name.endsWith(SUFFIX)
+                        && name.length() == prefix.length() + 64 + SUFFIX.length()) {
+                    Files.deleteIfExists(p);
+                }
+            }
+        }
+    }
+
+    // The offsets of a snapshot without the table bytes; shared read-only between the tables made from it
+    private static final class Layout {
+        final String hash;
+        final long length;
+        final String[] headers;
+        final int rows;
+        final int stride;
+        // The line runs and the offset runs, see the format above
+        final IntBuffer lines;
+        final ShortBuffer columns;
+
+        Layout(String hash, long length, String[] headers, int rows, int stride, IntBuffer lines, ShortBuffer columns) {
+            this.hash = hash;
+            this.length = length;
+            this.headers = headers;
+            this.rows = rows;
+            this.stride = stride;
+            this.lines = lines;
+            this.columns = columns;
+        }
+
+        TsvTable table(ByteBuffer bytes) {
+            return TsvTable.ofSnapshot(bytes, headers, rows, stride, lines, columns);
+        }
+    }
+}
@@ -0,0 +1,626 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.ShortBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Column-oriented view of a tab-separated game table (Skills.txt, Weapons.txt, UniqueItems.txt, ...).
+ * <p>
+ * Conventions shared by all updaters:
+ * - The first non-blank line is the header. Header names are trimmed and interned; an empty
+ * header becomes "col_&lt;index&gt;". When a name repeats, lookups return the last column.
+ * - A leading UTF-8 BOM is ignored, blank lines are skipped and "\r\n" line ends are accepted.
+ * - Cells are kept verbatim (not trimmed). Missing trailing cells read as "", cells beyond the
+ * header are dropped.
+ * <p>
+ * Look a column up once by name with {@link #column(String)} and read it by row index.
+ * Numeric columns have typed views, {@link #intColumn(String)} and {@link #doubleColumn(String)},
+ * decoded once by {@link NumericDecoder}.
+ * <p>
+ * The file is memory-mapped and scanned in place: the table only records the (offset, length) of
+ * every cell. {@link #get(int, int)} decodes a String the first time a cell is asked for and keeps it;
+ * {@link #cell(int, int)}, {@link #getInt(int, int, int)}, {@link #getDouble(int, int, double)} and
+ * {@link #isEmpty(int, int)} read the bytes directly and allocate nothing for ASCII cells.
+ * <p>
+ * {@link #read(Path, Collection)} takes a column projection: only the listed columns are located
+ * while scanning, the rest of each line is skipped. A column outside the projection is still
+ * readable; its cells are located on first access. Tables are not thread-safe.
+ * <p>
+ * Parsed layouts are cached by {@link TsvSnapshotCache}: when a file's content hash has a snapshot,
+ * the file is not scanned at all and each column's cell offsets are {@link ShortBuffer} views over the
+ * mapped snapshot, set up the first time the column is read.
+ */
+public final class TsvTable {
+
+    private static final String EMPTY = "";
+
+    /**
+     * Set to false to read files onto the heap instead of mapping them. A mapped file stays locked on
+     * Windows and faults if it is truncated while mapped, which matters when the files are being edited
+     * (watch mode).
+     */
+    public static boolean memoryMap = true;
+
+    final ByteBuffer bytes;
+    final String[] headers;
+    private final Map<String, Integer> index;
+    final int rowCount;
+    final IntBuffer lineStart;
+    final IntBuffer lineEnd;
+    // Per column: start offset and length of each cell; null until the column is located
+    private final IntBuffer[] cellStart;
+    private final IntBuffer[] cellLength;
+    // From a snapshot instead (see TsvSnapshotCache): per column, each cell's start relative to its line,
+    // or MISSING; a cell ends where the next column's starts. Slot headers.length is the cell after the last.
+    private final ShortBuffer[] offsets;
+    // All offset runs of the snapshot, stride shorts each, or null
+    private final ShortBuffer columns;
+    private final int stride;
+
+    // Offset of a cell past the end of its line; lines of a snapshot are shorter
+    static final int MISSING = 0xFFFF;
+    // Per column: decoded cells, allocated on the first get()
+    private final String[][] decoded;
+    private byte[] scratch = new byte[256];
+    // Reused view handed to NumericDecoder; non-ASCII bytes never look like digits
+    private final AsciiSlice view;
+
+    private TsvTable(ByteBuffer bytes, String[] headers, int rowCount, IntBuffer lineStart, IntBuffer lineEnd,
+                     IntBuffer[] cellStart, IntBuffer[] cellLength, ShortBuffer columns, int stride) {
+        this.bytes = bytes;
+        this.headers = headers;
+        this.rowCount = rowCount;
+        this.lineStart = lineStart;
+        this.lineEnd = lineEnd;
+        this.cellStart = cellStart;
+        this.cellLength = cellLength;
+        this.offsets = columns == null ? null : new ShortBuffer[headers.length + 1];
+        this.columns = columns;
+        this.stride = stride;
+        this.decoded = new String[headers.length][];
+        this.view = new AsciiSlice(bytes, 0, 0);
+        this.index = new HashMap<>(headers.length * 2);
+        for (int c = 0; c < headers.length; c++) {
+            index.put(headers[c], c);
+        }
+    }
+
+    /**
+     * A table over snapshot offsets (see {@link TsvSnapshotCache}): line starts and ends in
+     * {@code [0, rows)} and {@code [stride, stride + rows)} of {@code lines}, and the offset runs of
+     * every column plus the slot after the last one in {@code columns}, {@code stride} shorts each.
+     * Nothing is copied.
+     */
+    static TsvTable ofSnapshot(ByteBuffer bytes, String[] headers, int rows, int stride, IntBuffer lines,
+                               ShortBuffer columns) {
+        return new TsvTable(bytes, headers, rows, block(lines, 0, rows), block(lines, stride, rows),
+                new IntBuffer[headers.length], new IntBuffer[headers.length], columns, stride);
+    }
+
+    // ints[from, from + length) as its own buffer
+    static IntBuffer block(IntBuffer ints, int from, int length) {
+        IntBuffer b = ints.duplicate();
+        b.limit(from + length);
+        b.position(from);
+        return b.slice();
+    }
+
+    static ShortBuffer block(ShortBuffer shorts, int from, int length) {
+        ShortBuffer b = shorts.duplicate();
+        b.limit(from + length);
+        b.position(from);
+        return b.slice();
+    }
+
+    /**
+     * Reads every column of the table.
+     */
+    public static TsvTable read(Path path) throws IOException {
+        return read(path, null);
+    }
+
+    /**
+     * Reads the table, locating only the cells of {@code projection} while scanning. Names missing
+     * from the header are ignored. A null projection locates every column.
+     * <p>
+     * With the snapshot cache enabled, an unchanged file is not scanned and only the columns that are
+     * read get offset views. A changed file is scanned once in full, straight into its new snapshot,
+     * so that snapshot serves any projection afterwards.
+     */
+    public static TsvTable read(Path path, Collection<String> projection) throws IOException {
+        ByteBuffer buf;
+        if (memoryMap) {
+            try (FileChannel ch = FileChannel.open(path, StandardOpenOption.READ)) {
+                buf = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+            }
+        } else {
+            buf = ByteBuffer.wrap(Files.readAllBytes(path));
+        }
+        if (!TsvSnapshotCache.enabled) {
+            return scan(buf, projection);
+        }
+        String hash = ContentHash.of(buf);
+        TsvTable table = TsvSnapshotCache.load(path, hash, buf);
+        if (table == null) table = TsvSnapshotCache.build(path, hash, buf);
+        return table != null ? table : scan(buf, projection);
+    }
+
+    private static TsvTable scan(ByteBuffer buf, Collection<String> projection) {
+        Header h = header(buf);
+        if (h == null) {
+            return new TsvTable(buf, new String[0], 0, IntBuffer.allocate(0), IntBuffer.allocate(0),
+                    new IntBuffer[0], new IntBuffer[0], null, 0);
+        }
+        boolean[] wanted = wantedColumns(h.names, projection);
+        IntBuffer lineStart = IntBuffer.allocate(h.maxRows);
+        IntBuffer lineEnd = IntBuffer.allocate(h.maxRows);
+        IntBuffer[] cellStart = new IntBuffer[h.names.length];
+        IntBuffer[] cellLength = new IntBuffer[h.names.length];
+        for (int c = 0; c < h.names.length; c++) {
+            if (!wanted[c]) continue;
+            cellStart[c] = IntBuffer.allocate(h.maxRows);
+            cellLength[c] = IntBuffer.allocate(h.maxRows);
+        }
+        int rows = fill(buf, h.bodyStart, lineStart, lineEnd, cellStart, cellLength, null);
+        return new TsvTable(buf, h.names, rows, lineStart, lineEnd, cellStart, cellLength, null, 0);
+    }
+
+    // The header line of a table and a bound on its row count
+    static final class Header {
+        final String[] names;
+        // Offset just past the header line
+        final int bodyStart;
+        // One more than the line breaks after the header, so no table has more rows
+        final int maxRows;
+
+        private Header(String[] names, int bodyStart, int maxRows) {
+            this.names = names;
+            this.bodyStart = bodyStart;
+            this.maxRows = maxRows;
+        }
+    }
+
+    // The first non-blank line, or null if there is none
+    static Header header(ByteBuffer buf) {
+        int n = buf.limit();
+        int pos = 0;
+        if (n >= 3 && (buf.get(0) & 0xFF) == 0xEF && (buf.get(1) & 0xFF) == 0xBB && (buf.get(2) & 0xFF) == 0xBF) {
+            pos = 3;
+        }
+        while (pos < n) {
+            int start = pos;
+            int end = start;
+            while (end < n && buf.get(end) != '\n') end++;
+            pos = end + 1;
+            if (end > start && buf.get(end - 1) == '\r') end--;
+            if (isBlank(buf, start, end)) continue;
+
+            int maxRows = 1;
+            for (int i = pos; i < n; i++) {
+                if (buf.get(i) == '\n') maxRows++;
+            }
+            return new Header(splitHeader(decode(buf, start, end - start, new byte[end - start])), pos, maxRows);
+        }
+        return null;
+    }
+
+    /**
+     * Records the line bounds of every row from {@code from} on, and the cells of the columns that have
+     * a buffer in {@code cellStart} / {@code cellLength}. With {@code offsets} (one more than the columns)
+     * it records every cell's start relative to its line there instead. The buffers hold at least
+     * {@link Header#maxRows}.
+     *
+     * @return the number of rows, or -1 if {@code offsets} are given and a line is too long for them
+     */
+    static int fill(ByteBuffer buf, int from, IntBuffer lineStart, IntBuffer lineEnd,
+                    IntBuffer[] cellStart, IntBuffer[] cellLength, ShortBuffer[] offsets) {
+        int lastWanted = offsets != null ? offsets.length - 1 : -1;
+        for (int c = 0; c < cellStart.length && offsets == null; c++) {
+            if (cellStart[c] != null) lastWanted = c;
+        }
+        int n = buf.limit();
+        int pos = from;
+        int rows = 0;
+        while (pos < n) {
+            int start = pos;
+            int end = start;
+            while (end < n && buf.get(end) != '\n') end++;
+            pos = end + 1;
+            if (end > start && buf.get(end - 1) == '\r') end--;
+            if (isBlank(buf, start, end)) continue;
+
+            if (offsets != null && end - start >= MISSING) return -1;
+            lineStart.put(rows, start);
+            lineEnd.put(rows, end);
+            int c = 0;
+            int cell = start;
+            while (c <= lastWanted && cell <= end) {
+                int tab = cell;
+                while (tab < end && buf.get(tab) != '\t') tab++;
+                if (offsets != null) {
+                    offsets[c].put(rows, (short) (cell - start));
+                } else if (cellStart[c] != null) {
+                    cellStart[c].put(rows, cell);
+                    cellLength[c].put(rows, tab - cell);
+                }
+                c++;
+                cell = tab + 1;
+            }
+            for (; c <= lastWanted; c++) {
+                if (offsets != null) {
+                    offsets[c].put(rows, (short) MISSING);
+                } else if (cellStart[c] != null) {
+                    cellStart[c].put(rows, end);
+                    cellLength[c].put(rows, 0);
+                }
+            }
+            rows++;
+        }
+        return rows;
+    }
+
+    // The column a name resolves to (the last duplicate) is the one that gets located.
+    private static boolean[] wantedColumns(String[] headers, Collection<String> projection) {
+        boolean[] wanted = new boolean[headers.length];
+        if (projection == null) {
+            Arrays.fill(wanted, true);
+            return wanted;
+        }
+        Map<String, Integer> last = new HashMap<>(headers.length * 2);
+        for (int c = 0; c < headers.length; c++) {
+            last.put(headers[c], c);
+        }
+        for (String name : projection) {
+            Integer c = last.get(name);
+            if (c != null) wanted[c] = true;
+        }
+        return wanted;
+    }
+
+    private static String[] splitHeader(String line) {
+        String[] parts = line.split("\t", -1);
+        for (int i = 0; i < parts.length; i++) {
+            String h = parts[i].trim();
+            parts[i] = (h.isEmpty() ? "col_" + i : h).intern();
+        }
+        return parts;
+    }
+
+    private static boolean isBlank(ByteBuffer buf, int start, int end) {
+        for (int i = start; i < end; i++) {
+            byte b = buf.get(i);
+            if (b != ' ' && b != '\t' && b != '\r' && b != 0x0B && b != '\f') return false;
+        }
+        return true;
+    }
+
+    private static String decode(ByteBuffer buf, int start, int length, byte[] into) {
+        for (int i = 0; i < length; i++) {
+            into[i] = buf.get(start + i);
+        }
+        return new String(into, 0, length, StandardCharsets.UTF_8);
+    }
+
+    // Locates one column's cells from the line bounds.
+    private void locate(int col) {
+        int[] starts = new int[rowCount];
+        int[] lengths = new int[rowCount];
+        for (int r = 0; r < rowCount; r++) {
+            int end = lineEnd.get(r);
+            int cell = lineStart.get(r);
+            for (int c = 0; c < col && cell <= end; c++) {
+                while (cell < end && bytes.get(cell) != '\t') cell++;
+                cell++;
+            }
+            if (cell > end) {
+                starts[r] = end;
+                continue;
+            }
+            int tab = cell;
+            while (tab < end && bytes.get(tab) != '\t') tab++;
+            starts[r] = cell;
+            lengths[r] = tab - cell;
+        }
+        cellStart[col] = IntBuffer.wrap(starts);
+        cellLength[col] = IntBuffer.wrap(lengths);
+    }
+
+    private boolean located(int col) {
+        if (col < 0 || col >= headers.length) return false;
+        if (columns != null) {
+            if (offsets[col] == null) offsets[col] = block(columns, col * stride, rowCount);
+            if (offsets[col + 1] == null) offsets[col + 1] = block(columns, (col + 1) * stride, rowCount);
+        } else if (cellStart[col] == null) {
+            locate(col);
+        }
+        return true;
+    }
+
+    // Offset of a located cell in bytes
+    private int start(int col, int row) {
+        if (offsets == null) return cellStart[col].get(row);
+        int offset = offsets[col].get(row) & 0xFFFF;
+        return offset == MISSING ? lineEnd.get(row) : lineStart.get(row) + offset;
+    }
+
+    private int length(int col, int row) {
+        if (offsets == null) return cellLength[col].get(row);
+        int offset = offsets[col].get(row) & 0xFFFF;
+        if (offset == MISSING) return 0;
+        int next = offsets[col + 1].get(row) & 0xFFFF;
+        return (next == MISSING ? lineEnd.get(row) - lineStart.get(row) : next - 1) - offset;
+    }
+
+    public int rowCount() {
+        return rowCount;
+    }
+
+    public int columnCount() {
+        return headers.length;
+    }
+
+    public String header(int col) {
+        return headers[col];
+    }
+
+    /**
+     * Index of the column named {@code name}, or -1 if the table has no such column.
+     */
+    public int columnIndex(String name) {
+        Integer c = index.get(name);
+        return c == null ? -1 : c;
+    }
+
+    public boolean hasColumn(String name) {
+        return index.containsKey(name);
+    }
+
+    /**
+     * Cell at ({@code col}, {@code row}); "" when {@code col} is negative or out of range.
+     * The String is decoded once and kept.
+     */
+    public String get(int col, int row) {
+        if (!located(col)) return EMPTY;
+        int length = length(col, row);
+        if (length == 0) return EMPTY;
+        String[] cache = decoded[col];
+        if (cache == null) cache = decoded[col] = new String[rowCount];
+        String s = cache[row];
+        if (s == null) {
+            if (scratch.length < length) scratch = new byte[Math.max(length, scratch.length * 2)];
+            s = cache[row] = decode(bytes, start(col, row), length, scratch);
+        }
+        return s;
+    }
+
+    /**
+     * Cell at ({@code col}, {@code row}) without copying when it is plain ASCII. Call
+     * {@code toString()} on the result to keep the value.
+     */
+    public CharSequence cell(int col, int row) {
+        if (!located(col)) return EMPTY;
+        int start = start(col, row);
+        int length = length(col, row);
+        if (length == 0) return EMPTY;
+        for (int i = start; i < start + length; i++) {
+            if (bytes.get(i) < 0) return get(col, row);
+        }
+        return new AsciiSlice(bytes, start, length);
+    }
+
+    public boolean isEmpty(int col, int row) {
+        return !located(col) || length(col, row) == 0;
+    }
+
+    /**
+     * The cell as an int (see {@link NumericDecoder}), parsed straight from the bytes.
+     * Returns {@code missing} when the cell is empty or not an int.
+     */
+    public int getInt(int col, int row, int missing) {
+        if (!located(col)) return missing;
+        return NumericDecoder.parseInt(view(col, row), missing);
+    }
+
+    /**
+     * The cell as a double (int or decimal, see {@link NumericDecoder}), parsed straight from the bytes.
+     * Returns {@code missing} when the cell is empty or not a number.
+     */
+    public double getDouble(int col, int row, double missing) {
+        if (!located(col)) return missing;
+        return NumericDecoder.parseDouble(view(col, row), missing);
+    }
+
+    private AsciiSlice view(int col, int row) {
+        view.start = start(col, row);
+        view.length = length(col, row);
+        return view;
+    }
+
+    /**
+     * String view of the column named {@code name}. A missing column reads as "" in every row.
+     */
+    public StringColumn column(String name) {
+        return new StringColumn(this, columnIndex(name));
+    }
+
+    /**
+     * Int view of the column named {@code name}. Cells that are empty or not an int are missing;
+     * a missing column is missing in every row.
+     */
+    public IntColumn intColumn(String name) {
+        int col = columnIndex(name);
+        int[] values = new int[rowCount];
+        BitSet missing = new BitSet(rowCount);
+        for (int r = 0; r < rowCount; r++) {
+            if (col >= 0 && NumericDecoder.classify(viewOf(col, r)) == NumericDecoder.Kind.INT) {
+                values[r] = NumericDecoder.parseInt(view, 0);
+            } else {
+                missing.set(r);
+            }
+        }
+        return new IntColumn(values, missing);
+    }
+
+    /**
+     * Double view of the column named {@code name}. Cells that are empty or not a number are missing;
+     * a missing column is missing in every row.
+     */
+    public DoubleColumn doubleColumn(String name) {
+        int col = columnIndex(name);
+        double[] values = new double[rowCount];
+        BitSet missing = new BitSet(rowCount);
+        for (int r = 0; r < rowCount; r++) {
+            NumericDecoder.Kind kind = col >= 0 ? NumericDecoder.classify(viewOf(col, r)) : NumericDecoder.Kind.EMPTY;
+            if (kind == NumericDecoder.Kind.INT || kind == NumericDecoder.Kind.DECIMAL) {
+                values[r] = NumericDecoder.parseDouble(view, 0);
+            } else {
+                missing.set(r);
+            }
+        }
+        return new DoubleColumn(values, missing);
+    }
+
+    private AsciiSlice viewOf(int col, int row) {
+        located(col);
+        return view(col, row);
+    }
+
+    /**
+     * The row as it appears in the file, for diagnostics.
+     */
+    public String rowText(int row) {
+        int length = lineEnd.get(row) - lineStart.get(row);
+        return decode(bytes, lineStart.get(row), length, new byte[length]);
+    }
+
+    public static final class StringColumn {
+        private final TsvTable table;
+        private final int col;
+
+        private StringColumn(TsvTable table, int col) {
+            this.table = table;
+            this.col = col;
+        }
+
+        public boolean exists() {
+            return col >= 0;
+        }
+
+        public String get(int row) {
+            return table.get(col, row);
+        }
+
+        public CharSequence cell(int row) {
+            return table.cell(col, row);
+        }
+
+        public boolean isEmpty(int row) {
+            return table.isEmpty(col, row);
+        }
+    }
+
+    public static final class IntColumn {
+        private final int[] values;
+        private final BitSet missing;
+
+        private IntColumn(int[] values, BitSet missing) {
+            this.values = values;
+            this.missing = missing;
+        }
+
+        public int size() {
+            return values.length;
+        }
+
+        public boolean isMissing(int row) {
+            return missing.get(row);
+        }
+
+        /**
+         * The value, 0 when missing.
+         */
+        public int get(int row) {
+            return values[row];
+        }
+
+        public int getOrDefault(int row, int fallback) {
+            return missing.get(row) ? fallback : values[row];
+        }
+    }
+
+    public static final class DoubleColumn {
+        private final double[] values;
+        private final BitSet missing;
+
+        private DoubleColumn(double[] values, BitSet missing) {
+            this.values = values;
+            this.missing = missing;
+        }
+
+        public int size() {
+            return values.length;
+        }
+
+        public boolean isMissing(int row) {
+            return missing.get(row);
+        }
+
+        /**
+         * The value, 0 when missing.
+         */
+        public double get(int row) {
+            return values[row];
+        }
+
+        public double getOrDefault(int row, double fallback) {
+            return missing.get(row) ? fallback : values[row];
+        }
+    }
+
+    // ASCII bytes of a mapped cell viewed as chars.
+    private static final class AsciiSlice implements CharSequence {
+        private final ByteBuffer bytes;
+        private int start;
+        private int length;
+
+        AsciiSlice(ByteBuffer bytes, int start, int length) {
+            this.bytes = bytes;
+            this.start = start;
+            this.length = length;
+        }
+
+        @Override
+        public int length() {
+            return length;
+        }
+
+        @Override
+        public char charAt(int index) {
+            if (index < 0 || index >= length) throw new IndexOutOfBoundsException("index " + index);
+            return (char) bytes.get(start + index);
+        }
+
+        @Override
+        public CharSequence subSequence(int from, int to) {
+            if (from < 0 || to > length || from > to) throw new IndexOutOfBoundsException(from + ".." + to);
+            return new AsciiSlice(bytes, start + from, to - from);
+        }
+
+        @Override
+        public String toString() {
+            char[] chars = new char[length];
+            for (int i = 0; i < length; i++) chars[i] = (char) bytes.get(start + i);
+            return new String(chars);
+        }
+    }
+}
@@ -1,17 +1,12 @@
 // Java
 
-import java.util.Arrays;
-import java.util.Locale;
-import java.util.Set;
-import java.util.stream.Collectors;
-
 public final class TwoHandedWeaponUtil {
 
     private TwoHandedWeaponUtil() {
     }
 
-    // Raw names for readability. We'll normalize them into the lookup set below.
-    private static final String[] TWO_HANDED_BASES_RAW = new String[]{
+    // Raw names for readability; BaseCatalog normalizes them into its index.
+    static final String[] TWO_HANDED_BASES_RAW = new String[]{
             // Polearms
             "Bardiche", "Voulge", "Scythe", "Poleaxe", "Halberd", "War Scythe",
             "Lochaber Axe", "Bill", "Battle Scythe", "Partizan", "Bec-de-Corbin", "Grim Scythe",
@@ -57,12 +52,6 @@ public final class TwoHandedWeaponUtil {
             "Legend Sword", "Highland Blade", "Balrog Blade", "Champion Sword", "Colossus Sword", "Colossus Blade"
     };
 
-    // Build a normalized, unmodifiable lookup set
-    private static final Set<String> TWO_HANDED_BASES = Arrays.stream(TWO_HANDED_BASES_RAW)
-            .map(TwoHandedWeaponUtil::normKey)
-            .map(String::toLowerCase)
-            .collect(Collectors.toUnmodifiableSet());
-
     /**
      * Returns true if the given base name is considered two-handed.
      * Notes:
@@ -71,22 +60,9 @@ public final class TwoHandedWeaponUtil {
      */
     public static boolean isTwoHandedBase(String baseName) {
         if (baseName == null || baseName.isBlank()) return false;
-        return TWO_HANDED_BASES.contains(normKey(baseName));
-    }
-
-    /**
-     * Normalize to be robust against case, punctuation, and spacing.
-     * Examples:
-     * - "Thresher" -> "thresher"
-     * - "Bec-de-Corbin" / "Bec de Corbin" -> "bec de corbin"
-     * - "Hunter’s Bow" / "Hunters Bow" / "Hunter's Bow" -> "hunters bow"
-     */
-    private static String normKey(String s) {
-        String lower = s.toLowerCase(Locale.ROOT).trim();
-        // unify apostrophes and hyphens, then collapse non-alnum to single space
-        lower = lower.replace('’', '\'').replace('–', '-').replace('—', '-');
-        lower = lower.replaceAll("[^a-z0-9]+", " ").trim();
-        return lower.replaceAll("\\s+", " ");
+        // Robust against case, punctuation and spacing: "Bec-de-Corbin" / "bec de corbin", see BaseCatalog.canonicalId
+        BaseCatalog.Base base = BaseCatalog.get().find(baseName);
+        return base != null && base.twoHanded;
     }
 
     // Optional helper if you prefer to get "number of hands" directly
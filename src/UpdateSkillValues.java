@@ -1,60 +1,47 @@
-import java.io.BufferedReader;
-import java.io.FileReader;
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
 import java.util.*;
 
 public class UpdateSkillValues {
     private static final String dir = System.getProperty("user.dir") + "\\data\\";
     private static final String SKILLS_TEXT = dir + "Skills.txt";
-    private static final boolean skipEmptyValues = true;
     private static int skillLevelMax = 70;
 
     public static void main(String[] args) throws IOException {
 
         Path input = Path.of(SKILLS_TEXT);
-        List<String> lines = readAllLinesUTF8(input);
-        if (lines.isEmpty()) {
+        TsvTable table = TsvTable.read(input, SkillColumns.NAMES);
+        if (table.rowCount() == 0) {
             System.out.println("[]");
             return;
         }
-
-        // Split header by tabs
-        String headerLine = lines.get(0);
-        String[] headers = headerLine.split("\t", -1);
-
-        List<Map<String, String>> rows = new ArrayList<>();
-        for (int i = 1; i < lines.size(); i++) {
-            String line = lines.get(i);
-            // Skip completely empty lines
-            if (line.isEmpty()) continue;
-
-            String[] cols = line.split("\t", -1);
-            Map<String, String> obj = new LinkedHashMap<>();
-
-            int max = Math.max(headers.length, cols.length);
-            for (int c = 0; c < max; c++) {
-                String key = c < headers.length ? headers[c] : ("col_" + c);
-                String val = c < cols.length ? cols[c] : "";
-                if (!skipEmptyValues || !val.isEmpty())
-                    obj.put(key, val);
-            }
-            rows.add(obj);
-        }
+        SkillColumns rows = new SkillColumns(table);
 
         // String json = toSkilljs(rows);
         //System.out.println(json);
-        updatePossibles(rows, amazon_skill_map, Path.of(ClassJSUpdater.amazon));
-        updatePossibles(rows, assassin_skill_map, Path.of(ClassJSUpdater.assassin));
-        updatePossibles(rows, barbarian_skill_map, Path.of(ClassJSUpdater.barbarian));
-        updatePossibles(rows, druid_skill_map, Path.of(ClassJSUpdater.druid));
-        updatePossibles(rows, necromancer_skill_map, Path.of(ClassJSUpdater.necromancer));
-        updatePossibles(rows, paladin_skill_map, Path.of(ClassJSUpdater.paladin));
-        updatePossibles(rows, sorceress_skill_map, Path.of(ClassJSUpdater.sorceress));
+        // All edits are queued in memory; each class file is written once on commit
+        SkillJsPatchSession session = new SkillJsPatchSession();
+        updatePossibles(session, rows, amazon_skill_map, Path.of(ClassJSUpdater.amazon));
+        updatePossibles(session, rows, assassin_skill_map, Path.of(ClassJSUpdater.assassin));
+        updatePossibles(session, rows, barbarian_skill_map, Path.of(ClassJSUpdater.barbarian));
+        updatePossibles(session, rows, druid_skill_map, Path.of(ClassJSUpdater.druid));
+        updatePossibles(session, rows, necromancer_skill_map, Path.of(ClassJSUpdater.necromancer));
+        updatePossibles(session, rows, paladin_skill_map, Path.of(ClassJSUpdater.paladin));
+        updatePossibles(session, rows, sorceress_skill_map, Path.of(ClassJSUpdater.sorceress));
+        session.commit();
 
     }
 
+    // Reads Skills.txt and edits the class skill files in place
+    static Stage stage() {
+        List<Path> classFiles = Arrays.asList(Path.of(ClassJSUpdater.amazon), Path.of(ClassJSUpdater.assassin),
+                Path.of(ClassJSUpdater.barbarian), Path.of(ClassJSUpdater.druid), Path.of(ClassJSUpdater.necromancer),
+                Path.of(ClassJSUpdater.paladin), Path.of(ClassJSUpdater.sorceress));
+        List<Path> inputs = new ArrayList<>(classFiles);
+        inputs.add(Path.of(SKILLS_TEXT));
+        return new Stage("UpdateSkillValues", inputs, classFiles, () -> main(new String[0]));
+    }
+
 
     static Map<String, Double> hitShift = new HashMap<>();
 
@@ -70,10 +57,10 @@ public class UpdateSkillValues {
         hitShift.put("0", 0.00390625);
     }
 
-    private static void updatePossibles(List<Map<String, String>> rows, Map<String, String> skillMap, Path path) throws IOException {
+    private static void updatePossibles(SkillJsPatchSession session, SkillColumns rows, Map<String, String> skillMap, Path path) throws IOException {
 
-        for (Map<String, String> row : rows) {
-            String skillName = row.get("skill");
+        for (int row = 0; row < rows.count; row++) {
+            String skillName = rows.skill.get(row);
             if (skillMap.containsKey(skillName)) {
                 String dcode = skillMap.get(skillName);
                 /*
@@ -83,17 +70,17 @@ public class UpdateSkillValues {
         updateNumberList(path, varKey, label, numbers);
                  */
                 // "attack rating bonus"
-                String arBonus = getDataListFromRow(row, "ToHit", "LevToHit");
+                String arBonus = getDataListFromRow(rows.toHit, rows.levToHit, row);
                 if (arBonus != null && !arBonus.isEmpty()) {
-                    ClassJSUpdater.updateNumberList(path, dcode, java.util.Arrays.asList("Attack Rating Bonus", "Attack %", "Attack +%", "Attack Rating +%", "Attack Bonus +%", "Attack Rating"), arBonus);
+                    session.updateNumberList(path, dcode, java.util.Arrays.asList("Attack Rating Bonus", "Attack %", "Attack +%", "Attack Rating +%", "Attack Bonus +%", "Attack Rating"), arBonus);
                 }
 
                 double damageHitShift = 1;
-                if (row.containsKey("HitShift")) {
-                    if (hitShift.containsKey(row.get("HitShift").toString())) {
-                        damageHitShift = hitShift.get(row.get("HitShift").toString());
+                if (!rows.hitShift.isEmpty(row)) {
+                    if (hitShift.containsKey(rows.hitShift.get(row))) {
+                        damageHitShift = hitShift.get(rows.hitShift.get(row));
                     } else {
-                        System.err.println("Unknown HitShift: " + row.get("HitShift"));
+                        System.err.println("Unknown HitShift: " + rows.hitShift.get(row));
                     }
                 }
 
@@ -101,36 +88,24 @@ public class UpdateSkillValues {
                 {
                     // Calc min damage
                     String dmgEnd = "Min";
-                    String damage = buildBucketedLevelsCSV(damageHitShift,
-                            tryParseInt(row.get(dmgEnd + "Dam"), 0),
-                            tryParseInt(row.get(dmgEnd + "LevDam1"), 0),
-                            tryParseInt(row.get(dmgEnd + "LevDam2"), 0),
-                            tryParseInt(row.get(dmgEnd + "LevDam3"), 0),
-                            tryParseInt(row.get(dmgEnd + "LevDam4"), 0),
-                            tryParseInt(row.get(dmgEnd + "LevDam5"), 0));
+                    String damage = buildBucketedLevelsCSV(damageHitShift, rows.minDam, row);
                     if (damage != null && !damage.isEmpty()) {
                         // ClassJSUpdater.updateNumberList(path, dcode, "Damage (" + dmgEnd + ")", damage);
-                        ClassJSUpdater.updateNumberList(path, dcode, "Damage (" + dmgEnd.toLowerCase() + ")", damage);
+                        session.updateNumberList(path, dcode, "Damage (" + dmgEnd.toLowerCase() + ")", damage);
                     }
                 }
                 {
                     // Calc max damage
                     String dmgEnd = "Max";
-                    String damage = buildBucketedLevelsCSV(damageHitShift,
-                            tryParseInt(row.get(dmgEnd + "Dam"), 0),
-                            tryParseInt(row.get(dmgEnd + "LevDam1"), 0),
-                            tryParseInt(row.get(dmgEnd + "LevDam2"), 0),
-                            tryParseInt(row.get(dmgEnd + "LevDam3"), 0),
-                            tryParseInt(row.get(dmgEnd + "LevDam4"), 0),
-                            tryParseInt(row.get(dmgEnd + "LevDam5"), 0));
+                    String damage = buildBucketedLevelsCSV(damageHitShift, rows.maxDam, row);
                     if (damage != null && !damage.isEmpty()) {
                         //    ClassJSUpdater.updateNumberList(path, dcode, "Damage (" + dmgEnd + ")", damage);
-                        ClassJSUpdater.updateNumberList(path, dcode, "Damage (" + dmgEnd.toLowerCase() + ")", damage);
+                        session.updateNumberList(path, dcode, "Damage (" + dmgEnd.toLowerCase() + ")", damage);
                     }
                 }
 
 
-                String damageType = row.get("EType");
+                String damageType = rows.eType.isEmpty(row) ? null : rows.eType.get(row);
                 if (damageType != null) {
                     if (etype_map.containsKey(damageType)) {
                         damageType = etype_map.get(damageType);
@@ -142,46 +117,34 @@ public class UpdateSkillValues {
                 if (damageType != null) {
                     // Calc min damage
                     String dmgEnd = "Min";
-                    String damage = buildBucketedLevelsCSV(damageHitShift,
-                            tryParseInt(row.get("E" + dmgEnd), 0),
-                            tryParseInt(row.get("E" + dmgEnd + "Lev1"), 0),
-                            tryParseInt(row.get("E" + dmgEnd + "Lev2"), 0),
-                            tryParseInt(row.get("E" + dmgEnd + "Lev3"), 0),
-                            tryParseInt(row.get("E" + dmgEnd + "Lev4"), 0),
-                            tryParseInt(row.get("E" + dmgEnd + "Lev5"), 0));
+                    String damage = buildBucketedLevelsCSV(damageHitShift, rows.eMin, row);
                     if (damageType.equals("Lighting")) {
                         damageType = "Lightning";
                     }
                     if (damage != null && !damage.isEmpty()) {
-                        ClassJSUpdater.updateNumberList(path, dcode, damageType + " Damage (" + dmgEnd.toLowerCase() + ")", damage);
+                        session.updateNumberList(path, dcode, damageType + " Damage (" + dmgEnd.toLowerCase() + ")", damage);
                         //     ClassJSUpdater.updateNumberList(path, dcode, damageType + " Damage (" + dmgEnd + ")", damage);
                     }
                 }
                 if (damageType != null) {
                     // Calc mam damage
                     String dmgEnd = "Max";
-                    String damage = buildBucketedLevelsCSV(damageHitShift,
-                            tryParseInt(row.get("E" + dmgEnd), 0),
-                            tryParseInt(row.get("E" + dmgEnd + "Lev1"), 0),
-                            tryParseInt(row.get("E" + dmgEnd + "Lev2"), 0),
-                            tryParseInt(row.get("E" + dmgEnd + "Lev3"), 0),
-                            tryParseInt(row.get("E" + dmgEnd + "Lev4"), 0),
-                            tryParseInt(row.get("E" + dmgEnd + "Lev5"), 0));
+                    String damage = buildBucketedLevelsCSV(damageHitShift, rows.eMax, row);
                     if (damageType.equals("Lighting")) {
                         damageType = "Lightning";
                     }
                     if (damage != null && !damage.isEmpty()) {
-                        ClassJSUpdater.updateNumberList(path, dcode, damageType + " Damage (" + dmgEnd.toLowerCase() + ")", damage);
+                        session.updateNumberList(path, dcode, damageType + " Damage (" + dmgEnd.toLowerCase() + ")", damage);
                         //   ClassJSUpdater.updateNumberList(path, dcode, damageType + " Damage (" + dmgEnd + ")", damage);
                     }
                 }
 
                 {
                     // Calc mana
-                    int mana = tryParseInt(row.get("mana"), 0);
-                    int lvlmana = tryParseInt(row.get("lvlmana"), 0);
-                    int manashift = tryParseInt(row.get("manashift"), 0);
-                    int minmana = tryParseInt(row.get("minmana"), 0);
+                    int mana = rows.mana.getOrDefault(row, 0);
+                    int lvlmana = rows.lvlMana.getOrDefault(row, 0);
+                    int manashift = rows.manaShift.getOrDefault(row, 0);
+                    int minmana = rows.minMana.getOrDefault(row, 0);
                     if (manashift < 0) manashift = 0;
                     if (manashift > 30) manashift = 30;
                     // Multiplier should be (2^manashift) / 256.0 to match the chart
@@ -195,7 +158,7 @@ public class UpdateSkillValues {
                             manacost = Math.max(manacost, minmana);
                             sb.append(",").append(formatNumber(manacost));
                         }
-                        ClassJSUpdater.updateNumberList(path, dcode, "Mana Cost", sb.toString());
+                        session.updateNumberList(path, dcode, "Mana Cost", sb.toString());
                     }
                 }
             }
@@ -220,9 +183,15 @@ public class UpdateSkillValues {
     }
 
     private static String getDataListFromRow(Map<String, String> row, String textFileKey, String textFileKeyPerLvl) {
+        return getDataList(tryParseInt(row.get(textFileKey), 0), tryParseInt(row.get(textFileKeyPerLvl), 0));
+    }
+
+    private static String getDataListFromRow(TsvTable.IntColumn base, TsvTable.IntColumn perLevel, int row) {
+        return getDataList(base.getOrDefault(row, 0), perLevel.getOrDefault(row, 0));
+    }
+
+    private static String getDataList(int baseVal, int perlevelValue) {
         StringBuilder sb = new StringBuilder();
-        int baseVal = tryParseInt(row.get(textFileKey), 0);
-        int perlevelValue = tryParseInt(row.get(textFileKeyPerLvl), 0);
         if (baseVal == 0 && perlevelValue == 0) return null;
         for (int i = 0; i < skillLevelMax; i++) {
             int j = (baseVal + perlevelValue * i);
@@ -256,6 +225,16 @@ public class UpdateSkillValues {
      * @param levDam5     increment for levels 29-70
      * @return comma-delimited string of 70 values
      */
+    private static String buildBucketedLevelsCSV(double damageHitShift, TsvTable.IntColumn[] cols, int row) {
+        return buildBucketedLevelsCSV(damageHitShift,
+                cols[0].getOrDefault(row, 0),
+                cols[1].getOrDefault(row, 0),
+                cols[2].getOrDefault(row, 0),
+                cols[3].getOrDefault(row, 0),
+                cols[4].getOrDefault(row, 0),
+                cols[5].getOrDefault(row, 0));
+    }
+
     public static String buildBucketedLevelsCSV(double damageHitShift,
                                                 int level1Start,
                                                 int levDam1,
@@ -293,23 +272,7 @@ public class UpdateSkillValues {
     }
 
     private static int tryParseInt(String s, int defaultValue) {
-        try {
-            return Integer.parseInt(s);
-        } catch (Exception e) {
-            return defaultValue;
-        }
-    }
-
-    private static List<String> readAllLinesUTF8(Path path) throws IOException {
-        List<String> result = new ArrayList<>();
-        try (BufferedReader br = new BufferedReader(new FileReader(path.toFile(), StandardCharsets.UTF_8))) {
-            String line;
-            while ((line = br.readLine()) != null) {
-                // Normalize Windows CRLF if present (BufferedReader drops it anyway)
-                result.add(line);
-            }
-        }
-        return result;
+        return NumericDecoder.parseInt(s, defaultValue);
     }
 
     private static String toJsonArray(List<Map<String, String>> rows) {
@@ -394,6 +357,71 @@ public class UpdateSkillValues {
     }
 
 
+    // Skills.txt columns read by the updater, looked up once by name
+    private static final class SkillColumns {
+        // The only Skills.txt columns the updater reads; everything else is skipped while parsing
+        static final List<String> NAMES = names();
+
+        final int count;
+        final TsvTable.StringColumn skill;
+        final TsvTable.IntColumn toHit;
+        final TsvTable.IntColumn levToHit;
+        final TsvTable.StringColumn hitShift;
+        final TsvTable.IntColumn[] minDam;
+        final TsvTable.IntColumn[] maxDam;
+        final TsvTable.StringColumn eType;
+        final TsvTable.IntColumn[] eMin;
+        final TsvTable.IntColumn[] eMax;
+        final TsvTable.IntColumn mana;
+        final TsvTable.IntColumn lvlMana;
+        final TsvTable.IntColumn manaShift;
+        final TsvTable.IntColumn minMana;
+
+        SkillColumns(TsvTable table) {
+            count = table.rowCount();
+            skill = table.column("skill");
+            toHit = table.intColumn("ToHit");
+            levToHit = table.intColumn("LevToHit");
+            hitShift = table.column("HitShift");
+            minDam = levelColumns(table, "MinDam", "MinLevDam");
+            maxDam = levelColumns(table, "MaxDam", "MaxLevDam");
+            eType = table.column("EType");
+            eMin = levelColumns(table, "EMin", "EMinLev");
+            eMax = levelColumns(table, "EMax", "EMaxLev");
+            mana = table.intColumn("mana");
+            lvlMana = table.intColumn("lvlmana");
+            manaShift = table.intColumn("manashift");
+            minMana = table.intColumn("minmana");
+        }
+
+        private static List<String> names() {
+            List<String> names = new ArrayList<>(Arrays.asList("skill", "ToHit", "LevToHit", "HitShift", "EType",
+                    "mana", "lvlmana", "manashift", "minmana"));
+            addLevelNames(names, "MinDam", "MinLevDam");
+            addLevelNames(names, "MaxDam", "MaxLevDam");
+            addLevelNames(names, "EMin", "EMinLev");
+            addLevelNames(names, "EMax", "EMaxLev");
+            return Collections.unmodifiableList(names);
+        }
+
+        private static void addLevelNames(List<String> names, String base, String perLevelPrefix) {
+            names.add(base);
+            for (int i = 1; i <= 5; i++) {
+                names.add(perLevelPrefix + i);
+            }
+        }
+
+        // {base, perLevel1..perLevel5}
+        private static TsvTable.IntColumn[] levelColumns(TsvTable table, String base, String perLevelPrefix) {
+            TsvTable.IntColumn[] cols = new TsvTable.IntColumn[6];
+            cols[0] = table.intColumn(base);
+            for (int i = 1; i <= 5; i++) {
+                cols[i] = table.intColumn(perLevelPrefix + i);
+            }
+            return cols;
+        }
+    }
+
     static LinkedHashMap<String, String> amazon_skill_map = new LinkedHashMap<>();
 
     static {
@@ -1,11 +1,10 @@
 import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.nio.file.StandardOpenOption;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.*;
 
 public class UpdateUniqueItemsStats {
@@ -17,23 +16,29 @@ public class UpdateUniqueItemsStats {
     public static final String GEM_RUNE = dir + "Gems.txt";
     private static final String SET_ITEMS_PATH = dir + "SetItems.txt";
     private static final String MISC_PATH = dir + "magicrarerw.tsv";
+    private static final String SKILLS_PATH = dir + "Skills.txt";
     private static final String OUTPUT_DIR = dir;
     private static final String INPUT_DIR = rootdir + "\\src\\";
-    private static final String IMAGE_DIR = rootdir + "\\images\\";
-    private static final String ITEM_IMAGE_DIR = IMAGE_DIR + "\\items\\";
 
-    // File naming: new file each run like equipment-YYYYMMDD-HHmmss.js
-    private static final String OUTPUT_BASENAME = "equipment";
-
-    private static final boolean buildProd = true;
+    // Fixed name; HashedAssets adds the content-hashed copy the page loads
     private static final String PROD_OUTPUT_BASENAME = "items_equipment.js";
+    // --chunked also writes one file per group here, see EquipmentChunkWriter
+    private static final String CHUNK_DIR = "equipment";
 
     public static void main(String[] args) {
+        boolean chunked = Arrays.asList(args).contains("--chunked");
+        // Start clean when run again in the same JVM (Update_All --watch)
+        groupedCheck.clear();
+        RunesTxtToJson.reset();
+        SkillCatalog.reset();
+        images = ImageIndex.load();
+        imageRequests.clear();
 
         try {
 
 
-            Map<String, List<Map<String, Object>>> grouped = new LinkedHashMap<>();
+            // Rows stay StatVectors until they are written; writeEquipmentJs turns one at a time into a map
+            Map<String, List<StatVector>> grouped = new LinkedHashMap<>();
 
 
             if (extracted(grouped, ItemType.UNIQUE))
@@ -43,22 +48,23 @@ public class UpdateUniqueItemsStats {
             if (extracted(grouped, ItemType.MISC))
                 System.err.println("Error ItemType.MISC");
 
-            String js = buildEquipmentJs(grouped);
-
             Path outDir = Paths.get(OUTPUT_DIR);
             Files.createDirectories(outDir);
 
-            String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
-            final Path outFile;
-            if (buildProd) {
-                outFile = outDir.resolve(PROD_OUTPUT_BASENAME);
-                Files.write(outFile, js.getBytes(StandardCharsets.UTF_8), StandardOpenOption.TRUNCATE_EXISTING);
-            } else {
-                outFile = outDir.resolve(OUTPUT_BASENAME + "-" + timestamp + ".js");
-                Files.write(outFile, js.getBytes(StandardCharsets.UTF_8), StandardOpenOption.CREATE_NEW);
-
+            Path outFile = outDir.resolve(PROD_OUTPUT_BASENAME);
+            boolean changed;
+            EquipmentChunkWriter chunks = chunked ? new EquipmentChunkWriter(outDir.resolve(CHUNK_DIR)) : null;
+            try (OutputSink.Output sink = OutputSink.open(outFile)) {
+                writeEquipmentJs(grouped, sink.writer(), chunks);
+                sink.commit();
+                changed = sink.changed();
+            }
+            if (chunks != null) {
+                chunks.finish();
+                System.out.println("Wrote chunks to: " + outDir.resolve(CHUNK_DIR).toAbsolutePath());
             }
-            System.out.println("Wrote: " + outFile.toAbsolutePath());
+            reportMissingImages();
+            System.out.println((changed ? "Wrote: " : "Unchanged: ") + outFile.toAbsolutePath());
             System.out.println("Groups: " + grouped.size());
 
             RunesTxtToJson.writeRunewordsJsFile();
@@ -67,11 +73,41 @@ public class UpdateUniqueItemsStats {
         }
     }
 
+    // Reads the item and rune tables and writes items_equipment.js and item_runewords.js (and the chunks if chunked).
+    // The item image folder is an input too: which images exist decides each item's image path.
+    static Stage stage(boolean chunked) {
+        List<Path> inputs = Arrays.asList(Paths.get(UNIQUE_ITEMS_PATH), Paths.get(SET_ITEMS_PATH), Paths.get(MISC_PATH),
+                Paths.get(RUNE_WORDS), Paths.get(GEM_RUNE), Paths.get(INPUT_DIR, "CharmsData.txt"), ImageIndex.ITEMS,
+                Paths.get(SKILLS_PATH));
+        List<Path> outputs = new ArrayList<>();
+        outputs.add(Paths.get(OUTPUT_DIR, PROD_OUTPUT_BASENAME));
+        outputs.add(Paths.get(OUTPUT_DIR, "item_runewords.js"));
+        if (chunked) outputs.add(Paths.get(OUTPUT_DIR, CHUNK_DIR));
+        String[] args = chunked ? new String[]{"--chunked"} : new String[0];
+        return new Stage("UpdateUniqueItemsStats", inputs, outputs, () -> main(args));
+    }
+
     private enum ItemType {
         UNIQUE, SET, MISC
     }
 
-    private static boolean extracted(Map<String, List<Map<String, Object>>> grouped, ItemType itemType) throws IOException {
+    // Columns read from UniqueItems.txt / SetItems.txt / magicrarerw.tsv; the rest of each row is skipped while parsing
+    private static final List<String> ITEM_COLUMNS = itemColumns();
+
+    private static List<String> itemColumns() {
+        List<String> names = new ArrayList<>(Arrays.asList("index", "*type", "*item", "set", "rarity", "enabled", "lvl req"));
+        for (int i = 1; i <= 12; i++) {
+            names.addAll(Arrays.asList("prop" + i, "par" + i, "min" + i, "max" + i));
+        }
+        for (int i = 1; i <= 5; i++) {
+            for (String ab : new String[]{"a", "b"}) {
+                names.addAll(Arrays.asList("aprop" + i + ab, "apar" + i + ab, "amin" + i + ab, "amax" + i + ab));
+            }
+        }
+        return Collections.unmodifiableList(names);
+    }
+
+    private static boolean extracted(Map<String, List<StatVector>> grouped, ItemType itemType) throws IOException {
 
         final String path;
         if (itemType == ItemType.UNIQUE)
@@ -85,36 +121,33 @@ public class UpdateUniqueItemsStats {
             return true;
         }
 
-        List<String> lines = Files.readAllLines(Paths.get(path), StandardCharsets.UTF_8);
-        if (lines.isEmpty()) {
+        TsvTable table = TsvTable.read(Paths.get(path), ITEM_COLUMNS);
+        if (table.columnCount() == 0) {
             System.out.println("Input is empty: " + path);
             return true;
         }
 
-        String[] header = splitTSV(lines.get(0));
-        Map<String, Integer> h = headerIndex(header);
-
         // Required columns
-        int idxName = h.getOrDefault("index", -1);
+        int idxName = table.columnIndex("index");
         final int idxType;
         switch (itemType) {
             case UNIQUE:
             case MISC:
-                idxType = h.getOrDefault("*type", -1);
+                idxType = table.columnIndex("*type");
                 break;
             case SET:
-                idxType = h.getOrDefault("*item", -1);
+                idxType = table.columnIndex("*item");
                 break;
             default:
                 return true;
         }
 
 
-        int idxSetGroup = h.getOrDefault("set", -1);// SET ONLY
-        int idxItemRarity = h.getOrDefault("rarity", -1);// misc ONLY
+        int idxSetGroup = table.columnIndex("set");// SET ONLY
+        int idxItemRarity = table.columnIndex("rarity");// misc ONLY
 
-        int idxEnabled = h.getOrDefault("enabled", 2);
-        int idxReqLevel = h.getOrDefault("lvl req", 8); // fallback to 3rd column if header missing
+        int idxEnabled = columnIndexOrDefault(table, "enabled", 2);
+        int idxReqLevel = columnIndexOrDefault(table, "lvl req", 8); // fallback to 3rd column if header missing
 
         if (idxName < 0 || idxType < 0) {
             System.err.println("Missing required headers: index " + idxName + " and/or *type " + idxType);
@@ -129,10 +162,10 @@ public class UpdateUniqueItemsStats {
         Arrays.fill(idxProp, -1);
         Arrays.fill(idxMax, -1);
         for (int i = 1; i <= 12; i++) {
-            idxProp[i] = h.getOrDefault("prop" + i, -1);
-            idxPar[i] = h.getOrDefault("par" + i, -1);
-            idxMin[i] = h.getOrDefault("min" + i, -1);
-            idxMax[i] = h.getOrDefault("max" + i, -1);
+            idxProp[i] = table.columnIndex("prop" + i);
+            idxPar[i] = table.columnIndex("par" + i);
+            idxMin[i] = table.columnIndex("min" + i);
+            idxMax[i] = table.columnIndex("max" + i);
         }
 
         int[] idxaPropa = new int[6];
@@ -144,66 +177,65 @@ public class UpdateUniqueItemsStats {
         int[] idxaMinb = new int[6];
         int[] idxaMaxb = new int[6];
         for (int i = 1; i <= 5; i++) {
-            idxaPropa[i] = h.getOrDefault("aprop" + i + "a", -1);
-            idxaPara[i] = h.getOrDefault("apar" + i + "a", -1);
-            idxaMina[i] = h.getOrDefault("amin" + i + "a", -1);
-            idxaMaxa[i] = h.getOrDefault("amax" + i + "a", -1);
-            idxaPropb[i] = h.getOrDefault("aprop" + i + "b", -1);
-            idxaParb[i] = h.getOrDefault("apar" + i + "b", -1);
-            idxaMinb[i] = h.getOrDefault("amin" + i + "b", -1);
-            idxaMaxb[i] = h.getOrDefault("amax" + i + "b", -1);
+            idxaPropa[i] = table.columnIndex("aprop" + i + "a");
+            idxaPara[i] = table.columnIndex("apar" + i + "a");
+            idxaMina[i] = table.columnIndex("amin" + i + "a");
+            idxaMaxa[i] = table.columnIndex("amax" + i + "a");
+            idxaPropb[i] = table.columnIndex("aprop" + i + "b");
+            idxaParb[i] = table.columnIndex("apar" + i + "b");
+            idxaMinb[i] = table.columnIndex("amin" + i + "b");
+            idxaMaxb[i] = table.columnIndex("amax" + i + "b");
         }
 
 
+        BaseCatalog bases = BaseCatalog.get();
         int linecount = 0;
         int savedRows = 0;
-        for (int i = 1; i < lines.size(); i++) {
+        for (int r = 0; r < table.rowCount(); r++) {
             linecount++;
-            String line = lines.get(i);
-            if (line == null || line.trim().isEmpty()) continue;
-
-            String[] cols = splitTSV(line);
 
 
             // Must have "enabled" == "1"
             // Unique only
             if (itemType == ItemType.UNIQUE) {
-                String enabled = safeGet(cols, idxEnabled).trim();
+                String enabled = table.get(idxEnabled, r).trim();
                 if (!"1".equals(enabled)) {
                     continue;
                 }
             }
 
-            String baseType = itemmap.checkForRename(safeGet(cols, idxType).trim());
-            String name = itemmap.checkForRename(safeGet(cols, idxName).trim());
+            String baseType = itemmap.checkForRename(table.get(idxType, r).trim());
+            String name = itemmap.checkForRename(table.get(idxName, r).trim());
             String setGroup = "";
             if (idxSetGroup > -1) {
-                setGroup = safeGet(cols, idxSetGroup).trim();
+                setGroup = table.get(idxSetGroup, r).trim();
             }
 
             if (itemmap.skipCheck(name)) {
                 continue;
             }
-            String reqLevel = safeGet(cols, idxReqLevel).trim();
+            String reqLevel = table.get(idxReqLevel, r).trim();
 
             if (baseType.isEmpty() || name.isEmpty()) {
                 continue;
             }
 
-            Map<String, Object> row = new LinkedHashMap<>();
+            // Class restriction, hands and weapon group of the base, see BaseCatalog
+            BaseCatalog.Base base = bases.find(baseType);
+            StatVector row = new StatVector();
             if (!baseType.equalsIgnoreCase("ring") && !baseType.equalsIgnoreCase("amulet")) {
                 String baseClean = removeNumbersAndCapitalizeFirst(baseType);
                 row.put("base", baseClean);
-                if (WeaponGroupTypeUtil.ITEM_BASE_TO_SUBTYPE.containsKey(baseClean)) {
-                    row.put("subtype", WeaponGroupTypeUtil.ITEM_BASE_TO_SUBTYPE.get(baseClean));
+                BaseCatalog.Base cleanBase = bases.find(baseClean);
+                if (cleanBase != null && cleanBase.subtype != null) {
+                    row.put("subtype", cleanBase.subtype);
                 }
             }
             row.put("req_level", parseNumericOrString(reqLevel));
-            String onlyClass = itemmap.classForBaseOrNull(baseType);
-            if (onlyClass != null) {
-                row.put("only", onlyClass);
+            if (base != null && base.classOnly != null) {
+                row.put("only", base.classOnly);
             }
-            if (TwoHandedWeaponUtil.isTwoHandedBase(baseType)) {
+            if (base != null && base.twoHanded) {
                 row.put("twoHanded", 1);
             }
 
@@ -225,7 +257,7 @@ public class UpdateUniqueItemsStats {
             }
 
             if (itemType == ItemType.MISC) {
-                String rarity = safeGet(cols, idxItemRarity).trim();
+                String rarity = table.get(idxItemRarity, r).trim();
                 row.put("rarity", rarity.toLowerCase());
                 if (rarity.equals("rw")) {
                     row.put("name", name.replace(" - ", " \u00AD \u00AD - \u00AD \u00AD "));
@@ -370,8 +402,8 @@ public class UpdateUniqueItemsStats {
                     int[] idxMaxs = new int[2];
                     idxMaxs[0] = idxaMaxa[j];
                     idxMaxs[1] = idxaMaxb[j];
-                    Map<String, Object> setBonusLevel = new LinkedHashMap<>();
-                    extractedItemProps(idxProps, idxPars, idxMins, idxMaxs, cols, name, setBonusLevel, null);
+                    StatVector setBonusLevel = new StatVector();
+                    extractedItemProps(idxProps, idxPars, idxMins, idxMaxs, table, r, name, setBonusLevel, null);
                     setProperties.add(setBonusLevel);
                 }
 
@@ -383,7 +415,7 @@ public class UpdateUniqueItemsStats {
             String groupBaseType = itemmap.getGroupBaseType(baseType);
             if (groupBaseType != null && !groupBaseType.isEmpty()) {
                 if (itemmap.typeChecker(groupBaseType)) {
-                    String itemGroupType = WeaponGroupTypeUtil.groupOf(baseType);
+                    String itemGroupType = base == null ? null : base.group;
                     String itemTypeForRw = groupBaseType;
                     if (itemGroupType != null) {
                         row.put("type", itemGroupType);
@@ -406,7 +438,7 @@ public class UpdateUniqueItemsStats {
                     }
 
                     // Add prop1..prop11 with their max values, using the prop value as the key
-                    extractedItemProps(idxProp, idxPar, idxMin, idxMax, cols, name, row, itemTypeForRw);
+                    extractedItemProps(idxProp, idxPar, idxMin, idxMax, table, r, name, row, itemTypeForRw);
                     if (!groupBaseType.equals("Amulet") && !groupBaseType.equals("Ring1")) {
                         if (itemType == ItemType.SET || itemType == ItemType.UNIQUE) {
                             // Set / Unique
@@ -422,7 +454,7 @@ public class UpdateUniqueItemsStats {
             } else {
                 if (!(baseType.equals("charm") || baseType.equals("jewel") || baseType.startsWith("t5"))) {
                     System.err.println("No groupBaseType match on: " + baseType);
-                    System.out.println(line);
+                    System.out.println(table.rowText(r));
                 }
             }
         }
@@ -430,28 +462,44 @@ public class UpdateUniqueItemsStats {
         return false;
     }
 
-    static Map<String, List<String>> groupedCheck = new HashMap<>();
+    // Names taken so far, per group
+    static final Map<String, GroupNames> groupedCheck = new java.util.concurrent.ConcurrentHashMap<>();
 
-    private static void addToGroupSafe(Map<String, List<Map<String, Object>>> grouped, String groupBaseTypeKeyname, Map<String, Object> row) {
+    // Adds the row to its group, renaming a repeated name to "<name>_2", "<name>_3", ... (safe to call from several threads)
+    private static void addToGroupSafe(Map<String, List<StatVector>> grouped, String groupBaseTypeKeyname, StatVector row) {
         String itemName = (String) row.get("name");
-        if (groupedCheck.containsKey(groupBaseTypeKeyname)) {
-            int i = 1;
-            String newKey = itemName + (i > 1 ? "_" + i : "");
-            while (groupedCheck.get(groupBaseTypeKeyname).contains(newKey)) {
+        String newKey = groupedCheck.computeIfAbsent(groupBaseTypeKeyname, k -> new GroupNames()).claim(itemName);
+        if (!newKey.equals(itemName)) {
+            // intended  System.err.println("Duplicate key: " + newKey);
+            row.put("name", newKey);
+        }
+        synchronized (grouped) {
+            grouped.computeIfAbsent(groupBaseTypeKeyname, k -> new ArrayList<>()).add(row);
+        }
+    }
+
+    // The names of one group: a set of the taken names plus, per repeated name, the next suffix worth trying
+    static final class GroupNames {
+        private final Set<String> taken = new HashSet<>();
+        private final Map<String, Integer> nextSuffix = new HashMap<>();
+
+        // The first free name of name, name_2, name_3, ..., marked as taken
+        synchronized String claim(String name) {
+            if (taken.add(name)) return name;
+            // Suffixes below nextSuffix were all taken when it was stored, and names are never released
+            int i = nextSuffix.getOrDefault(name, 2);
+            String candidate = name + "_" + i;
+            while (!taken.add(candidate)) {
                 i++;
-                newKey = itemName + (i > 1 ? "_" + i : "");
-                // intended  System.err.println("Duplicate key: " + newKey);
+                candidate = name + "_" + i;
             }
-            itemName = newKey;
-            row.put("name", itemName);
-        } else {
-            groupedCheck.put(groupBaseTypeKeyname, new ArrayList<>());
+            nextSuffix.put(name, i + 1);
+            return candidate;
         }
-        groupedCheck.get(groupBaseTypeKeyname).add(itemName);
-        grouped.computeIfAbsent(groupBaseTypeKeyname, k -> new ArrayList<>()).add(row);
     }
 
-    private static void extractedItemProps(int[] idxProp, int[] idxPar, int[] idxMin, int[] idxMax, String[] cols, String name, Map<String, Object> row, String itemGroupType) {
+    private static void extractedItemProps(int[] idxProp, int[] idxPar, int[] idxMin, int[] idxMax, TsvTable table, int r, String name, StatVector row, String itemGroupType) {
+        StatVector resolvedStats = new StatVector();
         for (int p = 0; p < idxProp.length; p++) {
             int pIdx = idxProp[p];
             int parIdx = idxPar[p];
@@ -461,497 +509,25 @@ public class UpdateUniqueItemsStats {
                 continue;
             }
 
-            String propKey = safeGet(cols, pIdx).trim();
-            String parameter = safeGet(cols, parIdx).trim();
-            String minValStr = safeGet(cols, minIdx).trim();
-            String maxValStr = safeGet(cols, maxIdx).trim();
-            Map<String, Object> resolvedStats = resolveStat(name, propKey, maxValStr, parameter, minValStr, itemGroupType);
-            row = combineRows(row, resolvedStats);
-        }
-    }
-
-    // Merges two maps:
-    // - Upsert all keys from 'addition' into 'base'
-    // - If a key exists in both and both values are Integers, add them
-    // - Otherwise, overwrite with the value from 'addition'
-    public static Map<String, Object> combineRows(Map<String, Object> base, Map<String, Object> addition) {
-        if (addition == null || addition.isEmpty()) return base;
-        if (base == null) base = new LinkedHashMap<>();
-        for (String key : chanceSkills) {
-            if (addition.containsKey(key)) {
-                if (base.containsKey(key)) {
-                    addition = recursiveIncrement(base, addition, key, 1);
-                    break;
-                }
-                break;
-            }
-        }
-        return upsertCombineRows(base, addition);
-    }
-
-    private static Map<String, Object> recursiveIncrement(Map<String, Object> base, Map<String, Object> addition, String key, int i) {
-        if (i > 100) {
-            System.err.println("Too many iterations on " + key);
-            return addition;
+            String propKey = table.get(pIdx, r).trim();
+            String parameter = table.get(parIdx, r).trim();
+            String minValStr = table.get(minIdx, r).trim();
+            String maxValStr = table.get(maxIdx, r).trim();
+            row.merge(resolveStat(resolvedStats, name, propKey, maxValStr, parameter, minValStr, itemGroupType));
         }
-        if (base.containsKey(key + "_" + i)) {
-            return recursiveIncrement(base, addition, key, i + 1);
-        }
-        String keyAddition = "_" + i;
-        Map<String, Object> additionCopy = new LinkedHashMap<>();
-        for (Map.Entry<String, Object> e : addition.entrySet()) {
-            additionCopy.put(e.getKey() + keyAddition, e.getValue());
-        }
-        return additionCopy;
     }
 
-    static List<String> chanceSkills = new ArrayList<>();
-
-    static {
-        chanceSkills.add("aura");
-        chanceSkills.add("cast_skill");
-        chanceSkills.add("hit_skill");
-        chanceSkills.add("gethit_skill");
-        chanceSkills.add("ondeath_skill");
-        chanceSkills.add("onkill_skill");
-        chanceSkills.add("onlevel_skill");
-        chanceSkills.add("onblock_skill");
-        chanceSkills.add("charges_skill");
-        chanceSkills.add("strike_skill");
-        chanceSkills.add("equipped_skill");
-    }
-
-
-    private static Map<String, Object> upsertCombineRows(Map<String, Object> base, Map<String, Object> addition) {
-        if (addition == null || addition.isEmpty()) return base;
-        if (base == null) base = new LinkedHashMap<>();
-        for (Map.Entry<String, Object> e : addition.entrySet()) {
-            String key = e.getKey();
-            Object newVal = e.getValue();
-            if (base.containsKey(key)) {
-                Object oldVal = base.get(key);
-                if (oldVal instanceof Integer && newVal instanceof Integer) {
-                    base.put(key, (Integer) oldVal + (Integer) newVal);
-                } else {
-                    base.put(key, newVal);
-                }
-            } else {
-                base.put(key, newVal);
-            }
-        }
-        return base;
-    }
-
-    public static Map<String, Object> resolveStat(String name, String propKey, String maxValStr, String parameter, String minValStr, String itemGroupType) {
-        Map<String, Object> row = new LinkedHashMap<>();
+    // Resolution itself is table-driven, see PropResolvers. Clears row and returns it with the stats of one prop.
+    static StatVector resolveStat(StatVector row, String name, String propKey, String maxValStr, String parameter, String minValStr, String itemGroupType) {
+        row.clear();
         if (propKey.isEmpty() || (maxValStr.isEmpty() && parameter.isEmpty())) {
             return row;
         }
 
         Object val = (maxValStr.isEmpty() ? parseNumericOrString(parameter) : parseNumericOrString(maxValStr));
         Object minval = parseNumericOrString(minValStr);
-
-
-        String plannerPropKey = itemmap.PROP_MAP.get(propKey);
-        if (plannerPropKey == null) {
-            plannerPropKey = itemmap.PROP_MAP.get(propKey.toLowerCase());
-        }
-        if (itemmap.PROP_MAP.containsValue(propKey))
-            plannerPropKey = propKey;
-        else if (propKey.startsWith("skills_")) {
-            plannerPropKey = propKey;
-        } else if (propKey.equals("only")) {
-            if (val instanceof String) {
-                if ((val).equals("")) {
-                    return row;
-                }
-                val = ((String) val).toLowerCase();
-            }
-            plannerPropKey = propKey;
-        }
-
-        // Runeword
-
-        if (propKey.toLowerCase().equals("runeword")) {
-
-
-            Map<String, Object> rwData = RunesTxtToJson.getRuneword(parameter, itemGroupType);
-            if (rwData == null) {
-                System.err.println("Missing rw: " + parameter);
-                return row;
-            }
-            Object rwStats = rwData.get("rwstats");
-            if (rwStats instanceof Map) {
-                row.putAll((Map<String, Object>) rwStats);
-            } else {
-                System.err.println("Missing rwstats: " + parameter);
-            }
-            return row;
-        }
-
-        //skilltab
-        if (propKey.equals("skilltab")) {
-            switch (parameter.trim()) {
-                case "0":
-                    plannerPropKey = "skills_bows";
-                    break;
-                case "1":
-                    plannerPropKey = "skills_passives";
-                    break;
-                case "2":
-                    plannerPropKey = "skills_javelins";
-                    break;
-                case "3":
-                    plannerPropKey = "skills_fire";
-                    break;
-                case "4":
-                    plannerPropKey = "skills_lightning";
-                    break;
-                case "5":
-                    plannerPropKey = "skills_cold";
-                    break;
-                case "6":
-                    plannerPropKey = "skills_curses";
-                    break;
-                case "7":
-                    plannerPropKey = "skills_poisonBone";
-                    break;
-                case "8":
-                    plannerPropKey = "skills_summoning_necromancer";
-                    break;
-                case "9":
-                    plannerPropKey = "skills_combat_paladin";
-                    break;
-                case "10":
-                    plannerPropKey = "skills_offensive";
-                    break;
-                case "11":
-                    plannerPropKey = "skills_defensive";
-                    break;
-                case "12":
-                    plannerPropKey = "skills_combat_barbarian";
-                    break;
-                case "13":
-                    plannerPropKey = "skills_masteries";
-                    break;
-                case "14":
-                    plannerPropKey = "skills_warcries";
-                    break;
-                case "15":
-                    plannerPropKey = "skills_summoning_druid";
-                    break;
-                case "16":
-                    plannerPropKey = "skills_shapeshifting";
-                    break;
-                case "17":
-                    plannerPropKey = "skills_elemental";
-                    break;
-                case "18":
-                    plannerPropKey = "skills_traps";
-                    break;
-                case "19":
-                    plannerPropKey = "skills_shadow";
-                    break;
-                case "20":
-                    plannerPropKey = "skills_martial";
-                    break;
-                default:
-                    System.err.println("name: " + name + " propKey: " + propKey + " parameter: " +
-                            parameter + " minValStr: " + minValStr + " maxValStr: " + maxValStr);
-                    return row;
-            }
-        }
-
-        //skill
-
-        if (propKey.equals("skill") || propKey.equals("oskill")) {
-            String skillname = getSkillName(parameter);
-            if (skillname == null) {
-                System.err.println("name: " + name + " propKey: " + propKey + " parameter: " +
-                        parameter + " minValStr: " + minValStr + " maxValStr: " + maxValStr);
-                return row;
-            }
-            plannerPropKey = propKey + "_" + (skillname.replace(" ", "_"));
-        }
-
-        //aura
-        if (propKey.equals("aura")) {
-            String skillname = getSkillName(parameter);
-            if (skillname == null) {
-                System.err.println("name: " + name + " propKey: " + propKey + " parameter: " +
-                        parameter + " minValStr: " + minValStr + " maxValStr: " + maxValStr);
-                return row;
-            }
-            plannerPropKey = "aura";
-            row.put(plannerPropKey, skillname);
-            plannerPropKey = "aura_lvl";
-            row.put(plannerPropKey, val);
-            return row;
-        }
-
-        // Equipped Skill ""
-
-        if (propKey.equals("equipped-skill")) {
-            plannerPropKey = "equipped_skill";
-            row.put(plannerPropKey, parameter.replace("SelfAura", "").trim());
-            plannerPropKey = "equipped_skill_level";
-            row.put(plannerPropKey, val);
-            return row;
-        }
-
-
-        if (propKey.equals("skill-rand")) {
-            //250 for druid
-            if (val.equals(250)) {
-                plannerPropKey = "random_skill";
-                row.put(plannerPropKey, "[Random Druid Skill] (Druid Only)");
-                plannerPropKey = "random_skill_level";
-                row.put(plannerPropKey, parseNumericOrString(parameter));
-                return row;
-            }
-            System.err.println("name: " + name + " propKey: " + propKey + " parameter: " +
-                    parameter + " minValStr: " + minValStr + " maxValStr: " + maxValStr);
-            return row;
-        }
-
-            /*
-            cast-skill	Twister	15	28
-            cast_skill:{index:["cast_chance","cast_level","cast_skill"], format:["","% Chance to Cast Level "," "," on Casting"]},
-            strike_skill:{index:["strike_chance","strike_level","strike_skill"], format:["","% Chance to Cast Level "," "," on Striking"]},
-            hit_skill:{index:["hit_chance","hit_level","hit_skill"], format:["","% Chance to Cast Level "," "," on Hit"]},
-             */
-        if (propKey.equals("hit-skill") || propKey.equals("block-skill") || propKey.equals("levelup-skill") || propKey.equals("kill-skill") || propKey.equals("cast-skill") || propKey.equals("gethit-skill") || propKey.equals("death-skill")) {
-            final String type;
-            if (propKey.equals("death-skill"))
-                type = "ondeath";
-            else if (propKey.equals("gethit-skill"))
-                type = "gethit";
-            else if (propKey.equals("cast-skill"))
-                type = "cast";
-            else if (propKey.equals("kill-skill"))
-                type = "onkill";
-            else if (propKey.equals("levelup-skill"))
-                type = "onlevel";
-            else if (propKey.equals("block-skill"))
-                type = "onblock";
-            else if (propKey.equals("hit-skill"))
-                type = "strike";
-            else {
-                System.err.println("name: " + name + " propKey: " + propKey + " parameter: " +
-                        parameter + " minValStr: " + minValStr + " maxValStr: " + maxValStr);
-                return row;
-            }
-            String skillname = getSkillName(parameter);
-            if (skillname == null) {
-                System.err.println("name: " + name + " propKey: " + propKey + " parameter: " +
-                        parameter + " minValStr: " + minValStr + " maxValStr: " + maxValStr);
-                return row;
-            }
-            plannerPropKey = type + "_skill";
-            row.put(plannerPropKey, skillname);
-            plannerPropKey = type + "_chance";
-            row.put(plannerPropKey, minval);
-            plannerPropKey = type + "_level";
-            row.put(plannerPropKey, val);
-            return row;
-        }
-
-        // skill charged
-        if (propKey.equals("charged")) {
-            String type = "charges";
-            String skillname = getSkillName(parameter);
-            if (skillname == null) {
-                System.err.println("name: " + name + " propKey: " + propKey + " parameter: " +
-                        parameter + " minValStr: " + minValStr + " maxValStr: " + maxValStr);
-                return row;
-            }
-            plannerPropKey = type + "_skill";
-            row.put(plannerPropKey, skillname);
-            plannerPropKey = type + "_charges";
-            row.put(plannerPropKey, minval);
-            plannerPropKey = type + "_level";
-            row.put(plannerPropKey, val);
-            return row;
-        }
-
-        // flat dmg
-        if (propKey.equals("dmg-norm")) {
-            plannerPropKey = "damage_min";
-            row.put(plannerPropKey, val);
-            plannerPropKey = "damage_max";
-            row.put(plannerPropKey, val);
-            return row;
-        }
-
-        //
-        if (propKey.equals("dmg-mag")) {
-            plannerPropKey = "mDamage_min";
-            row.put(plannerPropKey, val);
-            plannerPropKey = "mDamage_max";
-            row.put(plannerPropKey, val);
-            return row;
-        }
-        //dmg-elem
-        if (propKey.equals("dmg-elem")) {
-            plannerPropKey = "fDamage_min";
-            row.put(plannerPropKey, minval);
-            plannerPropKey = "fDamage_max";
-            row.put(plannerPropKey, val);
-            plannerPropKey = "cDamage_min";
-            row.put(plannerPropKey, minval);
-            plannerPropKey = "cDamage_max";
-            row.put(plannerPropKey, val);
-            plannerPropKey = "lDamage_min";
-            row.put(plannerPropKey, minval);
-            plannerPropKey = "lDamage_max";
-            row.put(plannerPropKey, val);
-            return row;
-        }
-
-        if (propKey.equals("res-all-max")) {
-            plannerPropKey = "fRes_max";
-            row.put(plannerPropKey, val);
-            plannerPropKey = "lRes_max";
-            row.put(plannerPropKey, val);
-            plannerPropKey = "cRes_max";
-            row.put(plannerPropKey, val);
-            plannerPropKey = "pRes_max";
-            row.put(plannerPropKey, val);
-            return row;
-        }
-
-            /*
-            Hit Causes Monster to Flee +
-            16-> 12
-            10->7
-            100->100
-            64->50
-            14-> 10
-
-            howl	10	5 -> 10% level 5
-             */
-
-        if (propKey.equals("howl")) {
-            if (minval.equals(val)) {
-                final double newRate;
-                if (val.equals(100)) {
-                    newRate = 100;
-                } else {
-                    newRate = Math.floor(((Integer) val) * 0.75);
-                }
-                row.put("flee_on_hit", newRate);
-                return row;
-            }
-            String skillname = getSkillName(propKey);
-            if (skillname == null) {
-                System.err.println("name: " + name + " propKey: " + propKey + " parameter: " +
-                        parameter + " minValStr: " + minValStr + " maxValStr: " + maxValStr);
-                return row;
-            }
-            String type = "hit";
-            plannerPropKey = type + "_skill";
-            row.put(plannerPropKey, skillname);
-            plannerPropKey = type + "_chance";
-            row.put(plannerPropKey, minval);
-            plannerPropKey = type + "_level";
-            row.put(plannerPropKey, val);
-            return row;
-        }
-
-        if (propKey.equals("dmg-pois")) {
-            final double factor;
-            final int seconds;
-            if (parseNumericOrString(parameter).equals(75)) {
-                factor = 3.3;
-                seconds = 3;
-            } else if (parseNumericOrString(parameter).equals(50)) {
-                factor = 5.1;
-                seconds = 2;
-            } else if (parseNumericOrString(parameter).equals(100)) {
-                factor = 2.5;
-                seconds = 4;
-            } else if (parseNumericOrString(parameter).equals(125)) {
-                factor = 2;
-                seconds = 5;
-            } else if (parseNumericOrString(parameter).equals(25)) {
-                factor = 10.24;
-                seconds = 1;
-            } else {
-                System.err.println("name: " + name + " add psn calc for propKey: " + propKey + " parameter: " +
-                        parameter + " minValStr: " + minValStr + " maxValStr: " + maxValStr);
-                return row;
-            }
-            final double newPsn = Math.floor(((Integer) val) / factor);
-            row.put("dmg_pois", newPsn);
-            row.put("dmg_pois_time", seconds);
-            return row;
-        }
-
-        if (propKey.equals("silence-fhr-ias")) {
-            row.put("fhr", val);
-            row.put("ias", val);
-            return row;
-        }
-        if (propKey.equals("plague-fcr-pierce")) {
-            row.put("fcr", val);
-            row.put("enemy_pRes", Math.abs((Integer) val));
-            return row;
-        }
-        if (propKey.equals("str-and-vit")) {
-            row.put("strength", val);
-            row.put("vitality", val);
-            return row;
-        }
-        // Skip unknown properties instead of inserting a null key
-        if (plannerPropKey == null || plannerPropKey.isBlank()) {
-
-            if (propKey != null & !propKey.isEmpty()) {
-                if (!propKey.startsWith("map-"))
-                    System.err.println("Unknown prop: " + propKey);
-            }
-            return row;
-        }
-
-        if (plannerPropKey.contains("%") || plannerPropKey.contains("-")
-                || plannerPropKey.contains("/")) {
-            // System.err.println("Violate rule plannerPropKey: " + plannerPropKey);
-            return row;
-        }
-
-        // Make negative on purpose
-        if (plannerPropKey.equals("enemy_fRes") ||
-                plannerPropKey.equals("enemy_cRes") ||
-                plannerPropKey.equals("enemy_lRes") ||
-                plannerPropKey.equals("enemy_pRes") ||
-                plannerPropKey.equals("enemy_phyRes")) {
-            if (val instanceof Integer && ((Integer) val) > 0) {
-                val = Math.abs((Integer) val);
-            }
-        }
-
-        // add stat for uld
-        if (plannerPropKey.equals("mindmg_energy")) {
-            row.put("mindmg_per_energy", 1);
-        }
-
-        if (itemmap.PER_LEVEL_STATS.contains(plannerPropKey)) {
-            row.put(plannerPropKey, (Double.parseDouble(val.toString()) * 0.125));
-            return row;
-        } else if (plannerPropKey.endsWith("_per_level")) {
-            System.err.println("name: " + name + " possible per level prop key propKey: " + propKey);
-            row.put(plannerPropKey, (Double.parseDouble(val.toString()) * 0.125));
-            return row;
-        }
-
-        if (row.containsKey(plannerPropKey)) {
-            Object oldVal = row.get(plannerPropKey);
-            if (oldVal instanceof Integer && val instanceof Integer) {
-                row.put(plannerPropKey, (Integer) oldVal + (Integer) val);
-            }
-            row.put(plannerPropKey, val);
-        } else {
-            row.put(plannerPropKey, val);
-        }
+        PropResolvers.forProp(propKey).resolve(
+                new PropResolver.Prop(name, propKey, parameter, minValStr, maxValStr, itemGroupType, val, minval), row);
         return row;
     }
 
@@ -991,68 +567,69 @@ public class UpdateUniqueItemsStats {
         return sb.toString();
     }
 
-    private static String[] splitTSV(String line) {
-        return line.split("\t", -1); // keep empty trailing columns
-    }
-
-    private static Map<String, Integer> headerIndex(String[] header) {
-        Map<String, Integer> map = new HashMap<>();
-        for (int i = 0; i < header.length; i++) {
-            map.put(header[i].trim(), i);
-        }
-        return map;
-    }
-
-    private static String safeGet(String[] arr, int idx) {
-        return (idx >= 0 && idx < arr.length) ? arr[idx] : "";
+    private static int columnIndexOrDefault(TsvTable table, String name, int fallback) {
+        int idx = table.columnIndex(name);
+        return idx >= 0 ? idx : fallback;
     }
 
-    private static Object parseNumericOrString(String s) {
-        try {
-            if (s.contains(".")) {
-                return Double.parseDouble(s);
-            }
-            return Integer.parseInt(s);
-        } catch (NumberFormatException e) {
-            return s;
+    static Object parseNumericOrString(String s) {
+        switch (NumericDecoder.classify(s)) {
+            case INT:
+                return NumericDecoder.parseInt(s, 0);
+            case DECIMAL:
+                return NumericDecoder.parseDouble(s, 0);
+            default:
+                return s;
         }
     }
 
-    private static String buildEquipmentJs(Map<String, List<Map<String, Object>>> grouped) {
-        StringBuilder sb = new StringBuilder();
+    // Streams "var equipment = {...}" group by group and row by row; nothing is buffered beyond the writer,
+    // and each row's map exists only while it is written. With chunks, every group array is written to
+    // its chunk file at the same time.
+    private static void writeEquipmentJs(Map<String, List<StatVector>> grouped, Writer out,
+                                         EquipmentChunkWriter chunks) throws IOException {
+        Writer sb = out;
         sb.append("var equipment = ");
         sb.append("{\n");
 
         int gi = 0;
         int gsize = grouped.size();
-        for (Map.Entry<String, List<Map<String, Object>>> ge : grouped.entrySet()) {
+        for (Map.Entry<String, List<StatVector>> ge : grouped.entrySet()) {
             String groupKey = ge.getKey();
-            List<Map<String, Object>> rows = ge.getValue();
+            List<StatVector> rows = ge.getValue();
             // Sort Alphabetically
             rows.sort(Comparator.comparing(
-                    (Map<String, Object> m) -> m.get("name") == null ? null : m.get("name").toString(),
+                    (StatVector m) -> m.get("name") == null ? null : m.get("name").toString(),
                     Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER)
             ));
 
             //sb.append("  \"").append(escapeJsString(groupKey)).append("\": [\n");
-            sb.append(groupKey).append(": [\n{name:\"" + removeNumbersAndCapitalizeFirst(groupKey) + "\"},\n");
+            sb.append(groupKey).append(": ");
+            if (chunks != null) sb = chunks.beginGroup(groupKey, out);
+            sb.append("[\n{name:\"" + removeNumbersAndCapitalizeFirst(groupKey) + "\"},\n");
             for (int i = 0; i < rows.size(); i++) {
-                Map<String, Object> row = rows.get(i);
-                mapToJsObjectAppender(sb, row, removeNumbersAndCapitalizeFirst(groupKey));
+                mapToJsObjectAppender(sb, rows.get(i).toMap(), removeNumbersAndCapitalizeFirst(groupKey));
                 sb.append(",");
                 sb.append("\n");
             }
 
             sb.append("  ]");
+            if (chunks != null) {
+                chunks.endGroup();
+                sb = out;
+            }
             sb.append(",");
             sb.append("\n");
         }
-        sb.append(loadFooterFromFile());
+        if (chunks != null) {
+            chunks.addGroups(Files.readString(Paths.get(INPUT_DIR, "CharmsData.txt"), StandardCharsets.UTF_8), out);
+        } else {
+            copyFooter(sb);
+        }
         sb.append("};\n");
-        return sb.toString();
     }
 
-    private static void mapToJsObjectAppender(StringBuilder sb, Map<String, Object> row, String groupKey) {
+    private static void mapToJsObjectAppender(Writer sb, Map<String, Object> row, String groupKey) throws IOException {
         sb.append("    {");
         int ci = 0;
         int csize = row.size();
@@ -1090,9 +667,8 @@ public class UpdateUniqueItemsStats {
                     }
                     if (al.get(j) instanceof String) {
                         sb.append("\"").append(al.get(j).toString()).append("\"");
-                    } else if (al.get(j) instanceof Map<?, ?>) {
-                        Map<String, Object> m = (Map<String, Object>) al.get(j);
-                        mapToJsObjectAppender(sb, m, groupKey);
+                    } else if (al.get(j) instanceof StatVector) {
+                        mapToJsObjectAppender(sb, ((StatVector) al.get(j)).toMap(), groupKey);
                     } else {
                         sb.append(al.get(j).toString());
                     }
@@ -1109,22 +685,29 @@ public class UpdateUniqueItemsStats {
         sb.append("}");
     }
 
+    // images/items of this run, and the images the written rows asked for (item name, relative path)
+    private static ImageIndex images;
+    private static final List<String[]> imageRequests = new ArrayList<>();
+
+    // Whether the item's image exists; every check is kept for reportMissingImages
     private static boolean imageCheck(String groupKey, String subGroup, boolean isSpecial, String s, Object name) {
-        s = s.replace(" ", "_");
-        String fileName = s + ".png";
-        String isSpecialStr = isSpecial ? "special\\" : "";
-        if (subGroup != null && !subGroup.isEmpty()) {
-            subGroup = subGroup + "\\";
-        } else {
-            subGroup = "";
-        }
-        Path imagePath = Paths.get(ITEM_IMAGE_DIR, groupKey.toLowerCase(), "\\", subGroup.toLowerCase(), isSpecialStr, fileName);
+        String image = ImageIndex.relativePath(groupKey, subGroup, isSpecial, s);
+        imageRequests.add(new String[]{String.valueOf(name), image});
+        return images.contains(image);
+    }
 
-        if (!Files.exists(imagePath)) {
-            System.err.println(name + ": " + imagePath.toAbsolutePath());
-            return false;
+    // One line per item whose image is missing, in output order
+    private static void reportMissingImages() {
+        Set<String> keys = new HashSet<>();
+        for (String[] r : imageRequests) {
+            keys.add(r[1]);
+        }
+        Set<String> missing = images.missing(keys);
+        for (String[] r : imageRequests) {
+            if (missing.contains(r[1])) {
+                System.err.println(r[0] + ": " + images.resolve(r[1]).toAbsolutePath());
+            }
         }
-        return true;
     }
 
     private static String escapeJsString(String s) {
@@ -1165,757 +748,16 @@ public class UpdateUniqueItemsStats {
     }
 
 
+    // Skill ID or name -> planner skill name, null if unknown (see SkillCatalog)
     public static String getSkillName(String skNumber) {
-        switch (skNumber.toLowerCase()) {
-            // Amazon SK6-SK35
-            case "6":
-            case "magic arrow":
-                return "Magic Arrow";
-            case "7":
-            case "fire arrow":
-                return "Fire Arrow";
-            case "8":
-            case "inner sight":
-                return "Inner Sight";
-            case "9":
-            case "critical strike":
-                return "Critical Strike";
-            case "10":
-            case "jab":
-                return "Jab";
-            case "11":
-            case "cold arrow":
-                return "Cold Arrow";
-            case "12":
-            case "multiple shot":
-                return "Multiple Shot";
-            case "13":
-            case "dodge":
-                return "Dodge";
-            case "14":
-            case "power strike":
-                return "Power Strike";
-            case "15":
-            case "poison javelin":
-                return "Poison Javelin";
-            case "16":
-            case "exploding arrow":
-                return "Exploding Arrow";
-            case "17":
-            case "slow movement":
-                return "Slow Movement";
-            case "18":
-            case "avoid":
-                return "Avoid";
-            case "19":
-            case "javelin and spear mastery":
-                return "Javelin and Spear Mastery";
-            case "20":
-            case "lightning bolt":
-                return "Lightning Bolt";
-            case "21":
-            case "ice arrow":
-                return "Ice Arrow";
-            case "22":
-            case "guided arrow":
-                return "Guided Arrow";
-            case "23":
-            case "penetrate":
-                return "Penetrate";
-            case "24":
-            case "charged strike":
-                return "Charged Strike";
-            case "25":
-            case "plague javelin":
-                return "Plague Javelin";
-            case "26":
-            case "strafe":
-                return "Strafe";
-            case "27":
-            case "immolation arrow":
-                return "Immolation Arrow";
-            case "28":
-            case "decoy":
-            case "dopplezon":
-                return "Decoy";
-            case "29":
-            case "evade":
-                return "Evade";
-            case "30":
-            case "fend":
-                return "Fend";
-            case "31":
-            case "freezing arrow":
-                return "Freezing Arrow";
-            case "32":
-            case "valkyrie":
-                return "Valkyrie";
-            case "33":
-            case "pierce":
-                return "Pierce";
-            case "34":
-            case "lightning strike":
-                return "Lightning Strike";
-            case "35":
-            case "lightning fury":
-                return "Lightning Fury";
-
-            // Sorceress SK36-SK65, SK369, SK376, SK383
-            case "36":
-            case "fire bolt":
-                return "Fire Bolt";
-            case "37":
-            case "warmth":
-                return "Warmth";
-            case "38":
-            case "charged bolt":
-                return "Charged Bolt";
-            case "39":
-            case "ice bolt":
-                return "Ice Bolt";
-            case "40":
-            case "cold enchant":
-                return "Cold Enchant";
-            case "41":
-            case "inferno":
-                return "Inferno";
-            case "42":
-            case "static field":
-                return "Static Field";
-            case "43":
-            case "telekinesis":
-                return "Telekinesis";
-            case "44":
-            case "frost nova":
-                return "Frost Nova";
-            case "45":
-            case "ice blast":
-                return "Ice Blast";
-            case "46":
-            case "blaze":
-                return "Blaze";
-            case "47":
-            case "fire ball":
-                return "Fire Ball";
-            case "48":
-            case "nova":
-                return "Nova";
-            case "49":
-            case "lightning":
-                return "Lightning";
-            case "50":
-            case "shiver armor":
-                return "Shiver Armor";
-            case "51":
-            case "fire wall":
-                return "Fire Wall";
-            case "52":
-            case "enchant fire":
-            case "enchant":
-                return "Enchant Fire";
-            case "53":
-            case "chain lightning":
-                return "Chain Lightning";
-            case "54":
-            case "teleport":
-                return "Teleport";
-            case "55":
-            case "glacial spike":
-                return "Glacial Spike";
-            case "56":
-            case "meteor":
-                return "Meteor";
-            case "57":
-            case "thunder storm":
-                return "Thunder Storm";
-            case "58":
-            case "energy shield":
-                return "Energy Shield";
-            case "59":
-            case "blizzard":
-                return "Blizzard";
-            case "60":
-            case "chilling armor":
-                return "Chilling Armor";
-            case "61":
-            case "fire mastery":
-                return "Fire Mastery";
-            case "62":
-            case "hydra":
-                return "Hydra";
-            case "63":
-            case "lightning mastery":
-                return "Lightning Mastery";
-            case "64":
-            case "frozen orb":
-                return "Frozen Orb";
-            case "65":
-            case "cold mastery":
-                return "Cold Mastery";
-            case "369":
-            case "ice barrage":
-                return "Ice Barrage";
-            case "376":
-            case "combustion":
-                return "Combustion";
-            case "383":
-            case "lesser hydra":
-                return "Lesser Hydra";
-
-            // Necromancer SK66-SK95, SK367, SK374, SK381
-            case "66":
-            case "ampdmg":
-            case "amplify damage":
-                return "Amplify Damage";
-            case "67":
-            case "teeth":
-                return "Teeth";
-            case "68":
-            case "bone armor":
-                return "Bone Armor";
-            case "69":
-            case "skeleton mastery":
-                return "Skeleton Mastery";
-            case "70":
-            case "raise skeleton warrior":
-                return "Raise Skeleton Warrior";
-            case "71":
-            case "dim vision":
-                return "Dim Vision";
-            case "72":
-            case "weaken":
-                return "Weaken";
-            case "73":
-            case "poison strike":
-                return "Poison Strike";
-            case "74":
-            case "corpse explosion":
-                return "Corpse Explosion";
-            case "75":
-            case "clay golem":
-                return "Clay Golem";
-            case "76":
-            case "iron maiden":
-                return "Iron Maiden";
-            case "77":
-            case "terror":
-                return "Terror";
-            case "78":
-            case "bone wall":
-                return "Bone Wall";
-            case "79":
-            case "golem mastery":
-                return "Golem Mastery";
-            case "80":
-            case "raise skeletal mage":
-                return "Raise Skeletal Mage";
-            case "81":
-            case "confuse":
-                return "Confuse";
-            case "82":
-            case "life tap":
-                return "Life Tap";
-            case "83":
-            case "desecrate":
-                return "Desecrate";
-            case "84":
-            case "bone spear":
-                return "Bone Spear";
-            case "85":
-            case "blood golem":
-            case "bloodgolem":
-                return "Blood Golem";
-            case "86":
-            case "attract":
-                return "Attract";
-            case "87":
-            case "decrepify":
-                return "Decrepify";
-            case "88":
-            case "bone prison":
-                return "Bone Prison";
-            case "89":
-            case "raise skeleton archer":
-                return "Raise Skeleton Archer";
-            case "90":
-            case "iron golem":
-            case "irongolem":
-                return "Iron Golem";
-            case "91":
-            case "lowres":
-            case "lower resist":
-                return "Lower Resist";
-            case "92":
-            case "poison nova":
-                return "Poison Nova";
-            case "93":
-            case "bone spirit":
-                return "Bone Spirit";
-            case "94":
-            case "fire golem":
-                return "Fire Golem";
-            case "95":
-            case "revive":
-                return "Revive";
-            case "367":
-            case "blood warp":
-                return "Blood Warp";
-            case "374":
-            case "curse mastery":
-                return "Curse Mastery";
-            case "381":
-            case "dark pact":
-                return "Dark Pact";
-
-            // Paladin SK96-SK125, SK364, SK371, SK378
-            case "96":
-            case "sacrifice":
-                return "Sacrifice";
-            case "97":
-            case "smite":
-                return "Smite";
-            case "98":
-            case "might":
-                return "Might";
-            case "99":
-            case "prayer":
-                return "Prayer";
-            case "100":
-            case "resist fire":
-                return "Resist Fire";
-            case "101":
-            case "holy bolt":
-                return "Holy Bolt";
-            case "102":
-            case "holy fire":
-                return "Holy Fire";
-            case "103":
-            case "thorns":
-                return "Thorns";
-            case "104":
-            case "defiance":
-                return "Defiance";
-            case "105":
-            case "resist cold":
-                return "Resist Cold";
-            case "106":
-            case "zeal":
-                return "Zeal";
-            case "107":
-            case "charge":
-                return "Charge";
-            case "108":
-            case "blessed aim":
-                return "Blessed Aim";
-            case "109":
-            case "cleansing":
-                return "Cleansing";
-            case "110":
-            case "resist lightning":
-                return "Resist Lightning";
-            case "111":
-            case "vengeance":
-                return "Vengeance";
-            case "112":
-            case "blessed hammer":
-                return "Blessed Hammer";
-            case "113":
-            case "concentration":
-                return "Concentration";
-            case "114":
-            case "holy freeze":
-                return "Holy Freeze";
-            case "115":
-            case "vigor":
-                return "Vigor";
-            case "116":
-            case "holy sword":
-                return "Holy Sword";
-            case "117":
-            case "holy shield":
-                return "Holy Shield";
-            case "118":
-            case "holy shock":
-                return "Holy Shock";
-            case "119":
-            case "sanctuary":
-                return "Sanctuary";
-            case "120":
-            case "meditation":
-                return "Meditation";
-            case "121":
-            case "fist of the heavens":
-                return "Fist of the Heavens";
-            case "122":
-            case "fanaticism":
-                return "Fanaticism";
-            case "123":
-            case "conviction":
-                return "Conviction";
-            case "124":
-            case "redemption":
-                return "Redemption";
-            case "125":
-            case "salvation":
-                return "Salvation";
-            case "364":
-            case "holy nova":
-                return "Holy Nova";
-            case "371":
-            case "holy light":
-                return "Holy Light";
-            case "378":
-            case "joust":
-                return "Joust";
-
-            // Barbarian SK126-SK155, SK368
-            case "126":
-            case "bash":
-                return "Bash";
-            case "127":
-            case "sword mastery":
-                return "Sword Mastery";
-            case "128":
-            case "general mastery":
-                return "General Mastery";
-            case "129":
-            case "mace mastery":
-                return "Mace Mastery";
-            case "130":
-            case "howl":
-                return "Howl";
-            case "131":
-            case "find potion":
-                return "Find Potion";
-            case "132":
-            case "leap":
-                return "Leap";
-            case "133":
-            case "double swing":
-                return "Double Swing";
-            case "134":
-            case "polearm and spear mastery":
-                return "Polearm and Spear Mastery";
-            case "135":
-            case "throwing mastery":
-                return "Throwing Mastery";
-            case "136":
-            case "spear mastery":
-                return "Spear Mastery";
-            case "137":
-            case "taunt":
-                return "Taunt";
-            case "138":
-            case "shout":
-                return "Shout";
-            case "139":
-            case "stun":
-                return "Stun";
-            case "140":
-            case "double throw":
-                return "Double Throw";
-            case "141":
-            case "combat reflexes":
-                return "Combat Reflexes";
-            case "142":
-            case "find item":
-                return "Find Item";
-            case "143":
-            case "leap attack":
-                return "Leap Attack";
-            case "144":
-            case "concentrate":
-                return "Concentrate";
-            case "145":
-            case "iron skin":
-                return "Iron Skin";
-            case "146":
-            case "battle cry":
-                return "Battle Cry";
-            case "147":
-            case "frenzy":
-                return "Frenzy";
-            case "148":
-            case "increased speed":
-                return "Increased Speed";
-            case "149":
-            case "battle orders":
-                return "Battle Orders";
-            case "150":
-            case "grim ward":
-                return "Grim Ward";
-            case "151":
-            case "whirlwind":
-                return "Whirlwind";
-            case "152":
-            case "berserk":
-                return "Berserk";
-            case "153":
-            case "natural resistance":
-                return "Natural Resistance";
-            case "154":
-            case "war cry":
-                return "War Cry";
-            case "155":
-            case "battle command":
-                return "Battle Command";
-            case "368":
-            case "deep wounds":
-                return "Deep Wounds";
-
-            // Druid SK221-SK250, SK370
-            case "221":
-            case "raven":
-                return "Raven";
-            case "222":
-            case "poison creeper":
-                return "Poison Creeper";
-            case "223":
-            case "werewolf":
-                return "Werewolf";
-            case "224":
-            case "lycanthropy":
-                return "Lycanthropy";
-            case "225":
-            case "firestorm":
-                return "Firestorm";
-            case "226":
-            case "oak sage":
-                return "Oak Sage";
-            case "227":
-            case "summon spirit wolf":
-                return "Summon Spirit Wolf";
-            case "228":
-            case "werebear":
-            case "wearbear":
-                return "Werebear";
-            case "229":
-            case "molten boulder":
-                return "Molten Boulder";
-            case "230":
-            case "arctic blast":
-                return "Arctic Blast";
-            case "231":
-            case "plague poppy":
-            case "carrion vine":
-                return "Carrion Vine";
-            case "232":
-            case "feral rage":
-                return "Feral Rage";
-            case "233":
-            case "maul":
-                return "Maul";
-            case "234":
-            case "eruption":
-            case "fissure":
-                return "Fissure";
-            case "235":
-            case "cyclone armor":
-                return "Cyclone Armor";
-            case "236":
-            case "heart of wolverine":
-                return "Heart of Wolverine";
-            case "237":
-            case "summon dire wolf":
-                return "Summon Dire Wolf";
-            case "238":
-            case "rabies":
-                return "Rabies";
-            case "239":
-            case "fire claws":
-                return "Fire Claws";
-            case "240":
-            case "twister":
-                return "Twister";
-            case "241":
-            case "solar creeper":
-                return "Solar Creeper";
-            case "242":
-            case "hunger":
-                return "Hunger";
-            case "243":
-            case "shock wave":
-                return "Shock Wave";
-            case "244":
-            case "volcano":
-                return "Volcano";
-            case "245":
-            case "tornado":
-                return "Tornado";
-            case "246":
-            case "spirit of barbs":
-                return "Spirit of Barbs";
-            case "247":
-            case "summon grizzly":
-                return "Summon Grizzly";
-            case "248":
-            case "fury":
-                return "Fury";
-            case "249":
-            case "armageddon":
-                return "Armageddon";
-            case "250":
-            case "hurricane":
-                return "Hurricane";
-            case "370":
-            case "gust":
-                return "Gust";
-
-            // Assassin SK251-SK280, SK366
-            case "251":
-            case "fire blast":
-                return "Fire Blast";
-            case "252":
-            case "claw and dagger mastery":
-                return "Claw and Dagger Mastery";
-            case "253":
-            case "psychic hammer":
-                return "Psychic Hammer";
-            case "254":
-            case "tiger strike":
-                return "Tiger Strike";
-            case "255":
-            case "dragon talon":
-                return "Dragon Talon";
-            case "256":
-            case "shock web":
-                return "Shock Web";
-            case "257":
-            case "blade sentinel":
-                return "Blade Sentinel";
-            case "258":
-            case "burst of speed":
-                return "Burst of Speed";
-            case "259":
-            case "fists of fire":
-                return "Fists of Fire";
-            case "260":
-            case "dragon claw":
-                return "Dragon Claw";
-            case "261":
-            case "charged bolt sentry":
-                return "Charged Bolt Sentry";
-            case "262":
-            case "wake of fire":
-                return "Wake of Fire";
-            case "263":
-            case "weapon block":
-                return "Weapon Block";
-            case "264":
-            case "cloak of shadows":
-                return "Cloak of Shadows";
-            case "265":
-            case "cobra strike":
-                return "Cobra Strike";
-            case "266":
-            case "blade fury":
-                return "Blade Fury";
-            case "267":
-            case "fade":
-                return "Fade";
-            case "268":
-            case "shadow warrior":
-                return "Shadow Warrior";
-            case "269":
-            case "claws of thunder":
-                return "Claws of Thunder";
-            case "270":
-            case "dragon tail":
-                return "Dragon Tail";
-            case "271":
-            case "chain lightning sentry":
-                return "Chain Lightning Sentry";
-            case "272":
-            case "wake of inferno":
-                return "Wake of Inferno";
-            case "273":
-            case "mind blast":
-                return "Mind Blast";
-            case "274":
-            case "blades of ice":
-                return "Blades of Ice";
-            case "275":
-            case "dragon flight":
-                return "Dragon Flight";
-            case "276":
-            case "death sentry":
-                return "Death Sentry";
-            case "277":
-            case "blade shield":
-                return "Blade Shield";
-            case "278":
-            case "venom":
-                return "Venom";
-            case "279":
-            case "shadow master":
-                return "Shadow Master";
-            case "280":
-            case "phoenix strike":
-                return "Phoenix Strike";
-            case "366":
-            case "lightning sentry":
-                return "Lightning Sentry";
-
-            // Other Skills
-            case "357":
-            case "blink":
-                return "Blink";
-            case "380":
-            case "blade dance":
-                return "Blade Dance";
-            case "391":
-            case "lesser fade":
-                return "Lesser Fade";
-            case "400":
-            case "bone nova":
-            case "fingermagebossnova":
-                return "Bone Nova";
-            case "442":
-            case "ampdmg proc":
-            case "amplify damage proc":
-            case "amplify damage (proc)":
-                return "Amplify Damage";
-            case "443":
-            case "weaken (proc)":
-                return "Weaken";
-            case "444":
-            case "iron maiden proc":
-            case "iron maiden (proc)":
-                return "Iron Maiden";
-            case "445":
-            case "life tap proc":
-            case "life tap (proc)":
-                return "Life Tap";
-            case "446":
-            case "decrepify proc":
-            case "decrepify (proc)":
-                return "Decrepify";
-            case "447":
-            case "lowres proc":
-            case "lower resist (proc)":
-                return "Lower Resist";
-            case "554":
-            case "energy shield (item supplied)":
-                return "Energy Shield (Item Supplied)";
-            case "555":
-            case "chilling armor (item supplied)":
-                return "Chilling Armor (Item Supplied)";
-            case "556":
-            case "burst of speed (item supplied)":
-                return "Burst of Speed (Item Supplied)";
-            case "557":
-            case "blade shield (item supplied)":
-                return "Blade Shield (Item Supplied)";
-            default:
-                return null;
-        }
+        return SkillCatalog.get().name(skNumber);
     }
 
-    // New: load footer content from external file under data/
-    private static String loadFooterFromFile() {
+    // Footer content from the external file under src/, copied through without loading it whole
+    private static void copyFooter(Writer out) throws IOException {
         Path footerPath = Paths.get(INPUT_DIR, "CharmsData.txt");
-        try {
-            return Files.readString(footerPath, StandardCharsets.UTF_8);
+        try (Reader in = Files.newBufferedReader(footerPath, StandardCharsets.UTF_8)) {
+            in.transferTo(out);
         } catch (IOException e) {
             throw new RuntimeException("Failed to read footer file: " + footerPath.toAbsolutePath(), e);
         }
@@ -1,49 +1,42 @@
-public class Update_All {
-    public static void main(String[] args) {
-        run("UpdateArmorBasesFromTxt", () -> {
-            try {
-                UpdateArmorBasesFromTxt.main(new String[0]);
-            } catch (Exception e) {
-                throw new RuntimeException(e);
-            }
-        });
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
 
-        run("UpdateSkillValues", () -> {
-            try {
-                UpdateSkillValues.main(new String[0]);
-            } catch (Exception e) {
-                throw new RuntimeException(e);
-            }
-        });
+public class Update_All {
+    private static final String rootdir = System.getProperty("user.dir");
+    private static final Path MANIFEST = Paths.get(rootdir, "build", "manifest.tsv");
 
-        run("UpdateUniqueItemsStats", () -> {
-            try {
-                UpdateUniqueItemsStats.main(new String[0]);
-            } catch (Exception e) {
-                throw new RuntimeException(e);
-            }
-        });
+    /**
+     * Regenerates every output whose inputs changed since the last run.
+     * Pass --force to run all updaters regardless (e.g. after changing an updater's code).
+     * Pass --chunked to also write data/equipment/ (one file per equipment group, for lazy loading).
+     * Pass --watch to keep running and regenerate whenever data/, src/CharmsData.txt or images/items change.
+     */
+    public static void main(String[] args) throws Exception {
+        boolean force = Arrays.asList(args).contains("--force");
+        boolean watch = Arrays.asList(args).contains("--watch");
+        boolean chunked = Arrays.asList(args).contains("--chunked");
+        int threads = Runtime.getRuntime().availableProcessors();
+        BuildManifest manifest = BuildManifest.load(MANIFEST, Paths.get(rootdir));
 
-        run("UpdateWeaponBasesFromTxt", () -> {
-            try {
-                UpdateWeaponBasesFromTxt.main(new String[0]);
-            } catch (Exception e) {
-                throw new RuntimeException(e);
-            }
-        });
+        // Stages are listed in their sequential order; the scheduler keeps that order only where
+        // stages share files and runs the rest in parallel
+        StageScheduler scheduler = new StageScheduler()
+                .add(BaseStatsUpdater.stage())
+                .add(UpdateSkillValues.stage())
+                .add(UpdateUniqueItemsStats.stage(chunked))
+                .add(MinifiedArtifacts.stage())
+                .add(HashedAssets.stage())
+                .useManifest(manifest, force);
+        if (watch) {
+            // Only CharmsData.txt is an input under src/; other changes there are filtered out
+            List<Path> roots = Arrays.asList(Paths.get(rootdir, "data"), Paths.get(rootdir, "src"), Paths.get(rootdir, "images", "items"));
+            WatchMode.run(scheduler, manifest, roots, threads);
+        }
+        scheduler.run(threads);
+        System.out.println(OutputSink.report());
 
         System.out.println("All updaters finished.");
     }
-
-    private static void run(String name, Runnable r) {
-        System.out.println("=== Running " + name + " ===");
-        long t0 = System.currentTimeMillis();
-        try {
-            r.run();
-            System.out.println("=== " + name + " OK (" + (System.currentTimeMillis() - t0) + " ms) ===");
-        } catch (RuntimeException ex) {
-            System.err.println("=== " + name + " FAILED (" + (System.currentTimeMillis() - t0) + " ms) ===");
-            ex.printStackTrace();
-        }
-    }
 }
@@ -0,0 +1,132 @@
+import java.io.IOException;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.file.StandardWatchEventKinds.*;
+
+/**
+ * {@code Update_All --watch}: keeps the JVM running and re-runs the pipeline whenever a stage input changes.
+ * <p>
+ * The watched folders are registered recursively with a {@link WatchService}. Events are collected until
+ * nothing has changed for {@link #DEBOUNCE_MS}, so an editor's save (often a truncate plus a write, or a
+ * temp file and a rename) results in one run. Only changes to declared stage inputs count; files the
+ * pipeline wrote itself are recognised through the {@link BuildManifest} and ignored, so a run never
+ * triggers the next one.
+ * <p>
+ * Each run goes through the scheduler with the manifest, so only the stages whose inputs changed run
+ * again; their per-stage time is printed as usual. Tables are read onto the heap and their parsed
+ * layouts kept in memory ({@link TsvTable#memoryMap}, {@link TsvSnapshotCache#keepInMemory}), so an
+ * unchanged table is neither scanned nor re-loaded from disk.
+ */
+public final class WatchMode {
+
+    private static final long DEBOUNCE_MS = 150;
+
+    private final StageScheduler scheduler;
+    private final BuildManifest manifest;
+    private final int threads;
+    private final WatchService watcher;
+    private final Map<WatchKey, Path> keys = new HashMap<>();
+
+    private WatchMode(StageScheduler scheduler, BuildManifest manifest, int threads) throws IOException {
+        this.scheduler = scheduler;
+        this.manifest = manifest;
+        this.threads = threads;
+        this.watcher = FileSystems.getDefault().newWatchService();
+    }
+
+    /**
+     * Runs the pipeline once, then again after every change below {@code roots}. Does not return.
+     * {@code scheduler} must use {@code manifest}.
+     */
+    public static void run(StageScheduler scheduler, BuildManifest manifest, List<Path> roots, int threads)
+            throws IOException, InterruptedException {
+        TsvTable.memoryMap = false;
+        TsvSnapshotCache.keepInMemory = true;
+
+        WatchMode w = new WatchMode(scheduler, manifest, threads);
+        for (Path root : roots) {
+            if (Files.isDirectory(root)) {
+                w.registerAll(root.toAbsolutePath().normalize());
+            } else {
+                System.err.println("Not watching missing folder " + root);
+            }
+        }
+        scheduler.run(threads);
+        System.out.println(OutputSink.report());
+        System.out.println("Watching " + roots + " for changes (Ctrl+C to stop)");
+        w.loop();
+    }
+
+    private void loop() throws InterruptedException {
+        while (true) {
+            WatchKey key = watcher.take();
+            long detected = System.currentTimeMillis();
+            Set<Path> changed = new LinkedHashSet<>();
+            boolean overflow = drain(key, changed);
+            while ((key = watcher.poll(DEBOUNCE_MS, TimeUnit.MILLISECONDS)) != null) {
+                overflow |= drain(key, changed);
+            }
+
+            List<String> affected = new ArrayList<>();
+            for (Stage stage : scheduler.stages()) {
+                if (overflow || readsAny(stage, changed)) affected.add(stage.name());
+            }
+            if (affected.isEmpty()) continue;
+
+            System.out.println();
+            System.out.println("Changed: " + (overflow ? "(too many events, checking everything)" : changed));
+            System.out.println("Affected: " + String.join(", ", affected));
+            scheduler.run(threads);
+            System.out.println(OutputSink.report());
+            System.out.println("Regenerated in " + (System.currentTimeMillis() - detected) + " ms after the change");
+        }
+    }
+
+    // Collects the changed paths of one key; returns true if events were lost
+    private boolean drain(WatchKey key, Set<Path> changed) {
+        Path dir = keys.get(key);
+        boolean overflow = false;
+        for (WatchEvent<?> ev : key.pollEvents()) {
+            if (ev.kind() == OVERFLOW) {
+                overflow = true;
+                continue;
+            }
+            if (dir == null) continue;
+            Path p = dir.resolve((Path) ev.context());
+            if (ev.kind() == ENTRY_CREATE && Files.isDirectory(p, LinkOption.NOFOLLOW_LINKS)) {
+                try {
+                    registerAll(p);
+                } catch (IOException e) {
+                    System.err.println("Could not watch " + p + ": " + e.getMessage());
+                }
+            }
+            changed.add(p);
+        }
+        if (!key.reset()) keys.remove(key);
+        return overflow;
+    }
+
+    // A stage is affected by a changed input file, or any change below an input folder
+    private boolean readsAny(Stage stage, Set<Path> changed) {
+        for (Path p : changed) {
+            if (manifest.matchesRecordedOutput(p)) continue;
+            for (Path in : stage.inputs()) {
+                if (p.startsWith(in)) return true;
+            }
+        }
+        return false;
+    }
+
+    private void registerAll(Path root) throws IOException {
+        Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                keys.put(dir.register(watcher, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE), dir);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+}
@@ -191,7 +191,7 @@ public final class WeaponGroupTypeUtil {
     // -------------------------
     // Lookup map (exact match)
     // -------------------------
-    private static final java.util.Map<String, String> NAME_TO_GROUP;
+    static final java.util.Map<String, String> NAME_TO_GROUP;
 
     static {
         java.util.Map<String, String> m = new java.util.HashMap<>(256);
@@ -253,9 +253,8 @@ public final class WeaponGroupTypeUtil {
 
     // Returns the group for the exact base name, or empty if unknown.
     public static String groupOf(String baseName) {
-        if (baseName == null) return null;
-        String normBaseName = itemmap.norm(baseName.toLowerCase());
-        return NAME_TO_GROUP.get(itemmap.norm(normBaseName));
+        BaseCatalog.Base base = BaseCatalog.get().find(baseName);
+        return base == null ? null : base.group;
     }
 
     // For validation or introspection (e.g., unit tests)
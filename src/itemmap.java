@@ -22,7 +22,9 @@ public final class itemmap {
     public static final ArrayList<String> TYPES;
     public static final Map<String, String> NAME_CORRECTION_MAP;
     public static final ArrayList<String> CORRECTED_NAMES;
-    public static final ArrayList<String> SKIP_NAME_PART;
+    public static final List<String> SKIP_NAME_PART;
+    // Matches any SKIP_NAME_PART entry in one pass over a name
+    private static final NameMatcher SKIP_MATCHER;
     public static final ArrayList<String> PER_LEVEL_STATS;
 
     static {
@@ -881,7 +883,8 @@ public final class itemmap {
         skipNames.add("Hell Forge Hammer");
         skipNames.add("Horadric Staff");
         skipNames.add("Staff of Kings");
-        SKIP_NAME_PART = skipNames;
+        SKIP_NAME_PART = Collections.unmodifiableList(skipNames);
+        SKIP_MATCHER = NameMatcher.of(SKIP_NAME_PART);
 
 
         Map<String, String> lowercasType = new LinkedHashMap<>(t.size());
@@ -956,28 +959,33 @@ public final class itemmap {
             "heavenly stone", "eldritch orb", "demon heart", "vortex orb", "dimensional shard"
     );
 
+    // Class-specific bases per class, in lookup order (see BaseCatalog)
+    static Map<String, Set<String>> classBases() {
+        Map<String, Set<String>> m = new LinkedHashMap<>();
+        m.put("amazon", AMAZON_BASES);
+        m.put("assassin", ASSASSIN_BASES);
+        m.put("barbarian", BARBARIAN_BASES);
+        m.put("druid", DRUID_BASES);
+        m.put("necromancer", NECROMANCER_BASES);
+        m.put("paladin", PALADIN_BASES);
+        m.put("sorceress", SORCERESS_BASES);
+        return m;
+    }
+
     // Returns the class name if the base is class-specific; otherwise null.
     public static String classForBaseOrNull(String baseName) {
-        if (baseName == null) return null;
-        String checkBaseName = baseName.toLowerCase();
-        if (AMAZON_BASES.contains(checkBaseName)) return "amazon";
-        if (ASSASSIN_BASES.contains(checkBaseName)) return "assassin";
-        if (BARBARIAN_BASES.contains(checkBaseName)) return "barbarian";
-        if (DRUID_BASES.contains(checkBaseName)) return "druid";
-        if (NECROMANCER_BASES.contains(checkBaseName)) return "necromancer";
-        if (PALADIN_BASES.contains(checkBaseName)) return "paladin";
-        if (SORCERESS_BASES.contains(checkBaseName)) return "sorceress";
-        return null; // Not class-specific
+        BaseCatalog.Base base = BaseCatalog.get().find(baseName);
+        return base == null ? null : base.classOnly; // null: not class-specific
     }
 
     private itemmap() {
     }
 
     public static String checkForRename(String trim) {
-        String check = norm(trim);
-        if (NAME_CORRECTION_MAP.containsKey(check)) {
-            //   System.err.println("Renamed: " + check);
-            return NAME_CORRECTION_MAP.get(check);
+        String renamed = NAME_CORRECTION_MAP.get(norm(trim));
+        if (renamed != null) {
+            //   System.err.println("Renamed: " + trim);
+            return renamed;
         }
         return trim;
     }
@@ -995,12 +1003,8 @@ public final class itemmap {
         return itemmap.TYPES.contains(groupBaseType);
     }
 
+    // True if the name contains any SKIP_NAME_PART entry
     public static boolean skipCheck(String name) {
-        for (int i = 0; i < itemmap.SKIP_NAME_PART.size(); i++) {
-            if (name.contains(itemmap.SKIP_NAME_PART.get(i))) {
-                return true;
-            }
-        }
-        return false;
+        return SKIP_MATCHER.matchesAny(name);
     }
 }
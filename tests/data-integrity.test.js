@@ -61,6 +61,20 @@ describe('script loading', () => {
       assert.fail(`Script parse errors:\n  ${msg}`);
     }
   });
+
+  // The manifest and copies are build outputs (not in the repo); check them wherever a build left them
+  const manifestPath = require('path').join(__dirname, '..', 'data', 'asset-manifest.json');
+  it('every asset manifest entry is a current copy of its file', { skip: !require('fs').existsSync(manifestPath) && 'no asset manifest' }, () => {
+    const { readFileSync } = require('fs');
+    const path = require('path');
+    const root = path.join(__dirname, '..');
+    const manifest = JSON.parse(readFileSync(manifestPath, 'utf-8'));
+    const stale = [];
+    for (const [file, copy] of Object.entries(manifest)) {
+      if (!readFileSync(path.join(root, copy)).equals(readFileSync(path.join(root, file)))) stale.push(`${file} -> ${copy}`);
+    }
+    assert.deepStrictEqual(stale, [], 'Run Update_All (HashedAssets) to refresh the hashed copies');
+  });
 });
 
 // ─── Structural Sanity ───────────────────────────────────────────────
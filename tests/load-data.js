@@ -57,12 +57,16 @@ function loadAllScripts() {
   // Loads all scripts referenced by index.html to check for parse errors
   const indexPath = path.join(__dirname, '..', 'index.html');
   const html = readFileSync(indexPath, 'utf-8');
-  const scriptRegex = /src="\.?\/?([^"]+\.js)"/g;
+  // Script tags, and the data scripts index.html loads through loadDataScript
+  const scriptRegexes = [/src="\.?\/?([^"]+\.js)"/g, /loadDataScript\("([^"]+\.js)"\)/g];
   const errors = [];
-  let match;
+  const sources = [];
+  for (const scriptRegex of scriptRegexes) {
+    let match;
+    while ((match = scriptRegex.exec(html)) !== null) sources.push(match[1]);
+  }
 
-  while ((match = scriptRegex.exec(html)) !== null) {
-    const src = match[1];
+  for (const src of sources) {
     if (src.startsWith('http')) continue; // skip external scripts
     const filePath = path.join(__dirname, '..', src);
     try {
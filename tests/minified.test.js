@@ -0,0 +1,83 @@
+const { describe, it, before, after } = require('node:test');
+const assert = require('node:assert');
+const { readFileSync, writeFileSync, mkdtempSync, rmSync } = require('fs');
+const { createContext, runInContext } = require('vm');
+const { spawnSync } = require('child_process');
+const os = require('os');
+const path = require('path');
+
+const root = path.join(__dirname, '..');
+const dataDir = path.join(root, 'data');
+
+// The scripts MinifiedArtifacts rewrites
+const classes = ['amazon', 'assassin', 'barbarian', 'druid', 'necromancer', 'paladin', 'sorceress', 'universal_skills'];
+const sources = ['items_equipment.js', 'item_metadata.js', 'item_runewords.js']
+  .concat(classes.map(cls => path.join('skills', 'PD2', `${cls}.js`)));
+
+const javaAvailable = spawnSync('java', ['-version']).status === 0;
+
+// Runs src/JsMinifier.java once over the given files; returns the minified text per file
+function minify(files, dir) {
+  const args = [path.join(root, 'src', 'JsMinifier.java')];
+  files.forEach((file, i) => args.push(file, path.join(dir, `${i}.min.js`)));
+  const run = spawnSync('java', args, { encoding: 'utf-8' });
+  assert.strictEqual(run.status, 0, `JsMinifier failed: ${run.stderr}`);
+  return files.map((file, i) => readFileSync(path.join(dir, `${i}.min.js`), 'utf-8'));
+}
+
+// Globals a script leaves behind, as plain data; functions compare by name and arity
+function globals(code, filename) {
+  const context = createContext({ skills: [] });
+  runInContext(code, context, { filename });
+  return plain(context, new Set());
+}
+
+function plain(value, seen) {
+  if (typeof value === 'function') return `[function ${value.name}/${value.length}]`;
+  if (value === null || typeof value !== 'object') return value;
+  if (seen.has(value)) return '[cycle]';
+  seen.add(value);
+  const out = Array.isArray(value) ? Array.from(value, v => plain(v, seen)) : {};
+  if (!Array.isArray(value)) {
+    for (const key of Object.keys(value)) out[key] = plain(value[key], seen);
+  }
+  seen.delete(value);
+  return out;
+}
+
+describe('Minified scripts', { skip: !javaAvailable && 'java is not on the PATH' }, () => {
+  let dir;
+  let minified;
+
+  before(() => {
+    dir = mkdtempSync(path.join(os.tmpdir(), 'minified-'));
+    minified = minify(sources.map(file => path.join(dataDir, file)), dir);
+  });
+
+  after(() => {
+    if (dir) rmSync(dir, { recursive: true, force: true });
+  });
+
+  sources.forEach((file, i) => {
+    it(`${file} defines the same globals when minified`, () => {
+      const original = globals(readFileSync(path.join(dataDir, file), 'utf-8'), file);
+      assert.deepStrictEqual(globals(minified[i], `${file}.min.js`), original);
+    });
+  });
+
+  it('keeps a regex apart from a following identifier', () => {
+    const file = path.join(dir, 'regex.js');
+    writeFileSync(file, 'var r = /a/ instanceof RegExp;\nvar s = /b/g instanceof RegExp;\n');
+    const [min] = minify([file], dir);
+    assert.deepStrictEqual(globals(min, 'regex.min.js'), { skills: [], r: true, s: true });
+  });
+
+  it('reads a slash after ++ or -- as a division', () => {
+    // Read as a regex, "/ 2, s = "x/" would put the rest of the file out of step with its quotes
+    const file = path.join(dir, 'increment.js');
+    writeFileSync(file, 'var i = 4, j = 6;\nvar a = i++ / 2, s = "x/y";\nvar b = j-- / 3, t = "keep  1.50 // as is";\n');
+    const [min] = minify([file], dir);
+    assert.deepStrictEqual(globals(min, 'increment.min.js'),
+      { skills: [], i: 5, j: 5, a: 2, s: 'x/y', b: 2, t: 'keep  1.50 // as is' });
+  });
+});